@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Requests.get;
+import static com.github.tonivade.zeromock.api.Requests.patch;
+import static com.github.tonivade.zeromock.api.Requests.post;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.infra.TodoDAO;
+import com.github.tonivade.todo.infra.TodoDatabaseRepository;
+import com.github.tonivade.todo.infra.TodoInMemoryRepository;
+import com.github.tonivade.zeromock.api.Bytes;
+import com.github.tonivade.zeromock.api.HttpRequest;
+import com.github.tonivade.zeromock.api.HttpResponse;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The handlers of the api, without the http server, over the in memory repository and over the
+ * database repository with an embedded h2. The repository is filled again before each
+ * iteration, so creates don't make the next iterations slower. It runs with 1, 4 and 16
+ * threads, one nested class for each.
+ *
+ * <p>Reads through the api are served from its json cache after the first one, so they are
+ * measured twice: through the api, as the cached path, and as the repository read plus the
+ * serialization, that is the work of a miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class TodoAPIBenchmark {
+
+  private static final HttpRequest FIND_ALL = get("/");
+
+  @Param({ "memory", "h2" })
+  public String repository;
+
+  @Param({ "1", "1000", "100000" })
+  public int size;
+
+  private TodoRepository<Task<?>> todos;
+  private @Nullable HikariDataSource dataSource;
+  private TodoAPI api;
+  private int[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    todos = switch (repository) {
+      case "h2" -> createDatabaseRepository();
+      default -> new TodoInMemoryRepository();
+    };
+  }
+
+  @Setup(Level.Iteration)
+  public void fill() {
+    todos.deleteAll().fix(TaskOf::toTask).unsafeRunSync();
+    var operations = new ArrayList<TodoOperation>(size);
+    for (int i = 0; i < size; i++) {
+      operations.add(new TodoOperation.Create(Todo.draft("todo number " + i, i + 1)));
+    }
+    var results = todos.bulk(ImmutableList.from(operations)).fix(TaskOf::toTask).unsafeRunSync();
+    var created = new ArrayList<Integer>(size);
+    for (var result : results) {
+      if (result.getOrElseNull() instanceof TodoOperation.Create(var todo)) {
+        created.add(todo.getId());
+      }
+    }
+    ids = created.stream().mapToInt(Integer::intValue).toArray();
+    api = new TodoAPI(todos);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    var dataSource = this.dataSource;
+    if (dataSource != null) {
+      dataSource.close();
+    }
+  }
+
+  @Benchmark
+  public HttpResponse create() {
+    return api.create(post("/").withBody("""
+        {"title":"asdfg","order":1}
+        """)).unsafeRunSync();
+  }
+
+  @Benchmark
+  public HttpResponse findCached() {
+    return api.find(get("/" + anyId())).unsafeRunSync();
+  }
+
+  @Benchmark
+  public HttpResponse findAllCached() {
+    return api.findAll(FIND_ALL).unsafeRunSync();
+  }
+
+  @Benchmark
+  public Bytes find() {
+    return todos.find(new Id(anyId())).fix(TaskOf::toTask).unsafeRunSync()
+        .map(TodoJson::encode).getOrElseThrow();
+  }
+
+  @Benchmark
+  public Bytes findAll() {
+    var writer = new TodoListWriter();
+    todos.forEachRow(writer).fix(TaskOf::toTask).unsafeRunSync();
+    return writer.close();
+  }
+
+  @Benchmark
+  public HttpResponse modify() {
+    return api.modify(patch("/" + anyId()).withBody("""
+        {"title":"qwert","completed":true}
+        """)).unsafeRunSync();
+  }
+
+  private int anyId() {
+    return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+  }
+
+  private TodoRepository<Task<?>> createDatabaseRepository() {
+    var configuration = new HikariConfig();
+    configuration.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+    configuration.setUsername("sa");
+    configuration.setPassword("");
+    configuration.setMaximumPoolSize(16);
+    var dataSource = new HikariDataSource(configuration);
+    this.dataSource = dataSource;
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    return new TodoDatabaseRepository(dao, dataSource);
+  }
+
+  @Threads(1)
+  public static class OneThread extends TodoAPIBenchmark {}
+
+  @Threads(4)
+  public static class FourThreads extends TodoAPIBenchmark {}
+
+  @Threads(16)
+  public static class SixteenThreads extends TodoAPIBenchmark {}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.type.Try;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.zeromock.api.Bytes;
+import com.github.tonivade.zeromock.api.Deserializers;
+import com.github.tonivade.zeromock.api.Serializers;
+
+/**
+ * Json of a single todo, with the generic serializers of the dto and with {@link TodoJson}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoJsonBenchmark {
+
+  private final Todo todo = Todo.create(12345, "buy some \"fresh\" milk", 3, false);
+  private final Bytes body = TodoJson.encode(todo);
+
+  private final Function1<TodoDTO, Try<Bytes>> serializer = Serializers.objectToJson();
+  private final Function1<Bytes, Try<Option<TodoDTO>>> deserializer = Deserializers.jsonToObject(TodoDTO.class);
+
+  @Benchmark
+  public Try<Bytes> serializeGeneric() {
+    return serializer.apply(TodoDTO.fromDomain(todo));
+  }
+
+  @Benchmark
+  public Bytes serializeCodec() {
+    return TodoJson.encode(todo);
+  }
+
+  @Benchmark
+  public Try<Option<TodoDTO>> parseGeneric() {
+    return deserializer.apply(body);
+  }
+
+  @Benchmark
+  public Try<TodoDTO> parseCodec() {
+    return TodoJson.parse(body);
+  }
+
+  @Benchmark
+  public Try<TodoDTO> parseDraftCodec() {
+    return TodoJson.parse(asBytes("{\"title\":\"buy some milk\",\"order\":3}"));
+  }
+}
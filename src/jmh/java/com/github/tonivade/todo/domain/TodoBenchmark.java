@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.tonivade.purefun.type.Either;
+import com.github.tonivade.todo.app.TodoDTO;
+
+/**
+ * Construction of todos, directly and from a dto, that validates every field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoBenchmark {
+
+  private final TodoDTO draft = new TodoDTO(null, "buy some milk", 3, null, null);
+  private final TodoDTO complete = new TodoDTO(12345, "buy some milk", 3, false, null);
+  private final TodoDTO invalid = new TodoDTO(-1, "", 0, null, null);
+  private final Todo todo = Todo.create(12345, "buy some milk", 3, false);
+
+  @Benchmark
+  public Todo draft() {
+    return Todo.draft("buy some milk", 3);
+  }
+
+  @Benchmark
+  public Todo create() {
+    return Todo.create(12345, "buy some milk", 3, false);
+  }
+
+  @Benchmark
+  public Todo withTitle() {
+    return todo.withTitle("buy some bread");
+  }
+
+  @Benchmark
+  public Either<Throwable, Todo> draftFromDTO() {
+    return draft.toDraft();
+  }
+
+  @Benchmark
+  public Either<Throwable, Todo> todoFromDTO() {
+    return complete.toDomain();
+  }
+
+  @Benchmark
+  public Either<Throwable, Todo> invalidFromDTO() {
+    return invalid.toDomain();
+  }
+}
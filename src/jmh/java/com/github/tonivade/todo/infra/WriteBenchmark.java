@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Writes that survive a restart, the in memory repository with the journal against the
+ * database repository with a file based h2. The journal syncs to disk before a write returns,
+ * h2 runs with its default settings, that don't sync every commit. Concurrent writers share
+ * the sync of the journal, so it runs with 1 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class WriteBenchmark {
+
+  private static final int TODOS = 1000;
+
+  @Param({ "journal", "h2" })
+  public String repository;
+
+  private Path directory;
+  private TodoRepository<Task<?>> todos;
+  private @Nullable AutoCloseable resource;
+  private int first;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("benchmark");
+    todos = switch (repository) {
+      case "h2" -> createDatabaseRepository();
+      default -> createJournalRepository();
+    };
+    first = todos.create(Todo.draft("todo number 0")).fix(TaskOf::toTask).unsafeRunSync().getId();
+    for (int i = 1; i < TODOS; i++) {
+      todos.create(Todo.draft("todo number " + i)).fix(TaskOf::toTask).unsafeRunSync();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    var resource = this.resource;
+    if (resource != null) {
+      resource.close();
+    }
+    try (var paths = Files.walk(directory)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Benchmark
+  public Todo create() {
+    return todos.create(Todo.draft("asdfg", 1)).fix(TaskOf::toTask).unsafeRunSync();
+  }
+
+  @Benchmark
+  public Option<Todo> modify() {
+    var id = new Id(first + ThreadLocalRandom.current().nextInt(TODOS));
+    return todos.modify(id, todo -> todo.withCompleted(!todo.isCompleted())).fix(TaskOf::toTask).unsafeRunSync();
+  }
+
+  private TodoRepository<Task<?>> createJournalRepository() {
+    var journal = new TodoInMemoryRepository(directory, Duration.ofMinutes(10));
+    resource = journal;
+    return journal;
+  }
+
+  private TodoRepository<Task<?>> createDatabaseRepository() {
+    var configuration = new HikariConfig();
+    configuration.setJdbcUrl("jdbc:h2:file:" + directory.resolve(UUID.randomUUID().toString()));
+    configuration.setUsername("sa");
+    configuration.setPassword("");
+    configuration.setMaximumPoolSize(16);
+    var dataSource = new HikariDataSource(configuration);
+    resource = dataSource;
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    return new TodoDatabaseRepository(dao, dataSource);
+  }
+
+  @Threads(1)
+  public static class OneThread extends WriteBenchmark {}
+
+  @Threads(16)
+  public static class SixteenThreads extends WriteBenchmark {}
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Load test of the whole http stack. It starts the app in process and sends requests at a
+ * constant rate, whatever the latency of the responses, like real clients do (open model).
+ * The latency of every request is measured from the time it should have been sent, not from
+ * the time it was sent, so a stall of the server counts for every request that should have
+ * been sent during it, and not only for the one that was waiting (coordinated omission).
+ * It exits with an error when the results are worse than the configured slo.
+ */
+public final class LoadTest {
+
+  private static final long HIGHEST_LATENCY = SECONDS.toMicros(60);
+  private static final int PRECISION = 3;
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+  private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+  enum Operation { GET, POST, PATCH, DELETE }
+
+  enum Outcome { SUCCESS, NOT_FOUND, ERROR }
+
+  private final Settings settings;
+  private final URI base;
+  private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+  private final Ids ids = new Ids();
+  private final Results results = new Results();
+
+  LoadTest(Settings settings, URI base) {
+    this.settings = settings;
+    this.base = base;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var settings = Settings.fromSystemProperties();
+    var config = App.loadConfig().getOrElseThrow();
+    var server = App.buildServer(config).mount(App.TODO, App.buildService(config));
+    server.start();
+    List<String> violations;
+    try {
+      var base = URI.create("http://" + config.server().host() + ":" + config.server().port() + App.TODO + "/");
+      var report = new LoadTest(settings, base).run();
+      report.print(System.out);
+      report.write(settings.report());
+      violations = report.violations(settings);
+    } finally {
+      server.stop();
+    }
+    violations.forEach(System.err::println);
+    System.exit(violations.isEmpty() ? 0 : 1);
+  }
+
+  Report run() throws IOException, InterruptedException {
+    prepare();
+    var random = new Random(settings.seed());
+    long start = System.nanoTime();
+    long measured = start + settings.warmup().toNanos();
+    long end = measured + settings.duration().toNanos();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long intended = start + i * SECONDS.toNanos(1) / settings.rate();
+        if (intended >= end) {
+          break;
+        }
+        long delay = intended - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+        var operation = settings.mix().next(random);
+        executor.execute(() -> send(operation, intended, measured, end));
+      }
+    }
+    return new Report(settings.rate(), settings.duration(), results);
+  }
+
+  private void prepare() throws IOException, InterruptedException {
+    client.send(HttpRequest.newBuilder(base).timeout(TIMEOUT).DELETE().build(), BodyHandlers.discarding());
+    for (int i = 0; i < settings.todos(); i++) {
+      var response = client.send(create(), BodyHandlers.ofString());
+      created(response);
+    }
+  }
+
+  /**
+   * Latency is recorded, under the operation actually sent, for the requests that should have
+   * been sent in the measured window, and throughput counts the responses received in it that
+   * are not errors.
+   */
+  private void send(Operation planned, long intended, long measured, long end) {
+    var request = request(planned);
+    long sent = System.nanoTime();
+    Outcome outcome;
+    try {
+      outcome = completed(request.operation(), client.send(request.http(), BodyHandlers.ofString()));
+    } catch (IOException e) {
+      outcome = Outcome.ERROR;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      outcome = Outcome.ERROR;
+    }
+    long received = System.nanoTime();
+    if (intended >= measured) {
+      results.record(request.operation(), received - intended, received - sent, outcome);
+    }
+    if (outcome != Outcome.ERROR && received >= measured && received < end) {
+      results.served.increment();
+    }
+  }
+
+  /**
+   * When there is no todo left for a get, a patch or a delete, a new one is created instead.
+   */
+  private Request request(Operation operation) {
+    var id = switch (operation) {
+      case GET, PATCH -> ids.any();
+      case DELETE -> ids.take();
+      case POST -> 0;
+    };
+    if (id == 0) {
+      return new Request(Operation.POST, create());
+    }
+    var builder = HttpRequest.newBuilder(base.resolve(String.valueOf(id))).timeout(TIMEOUT);
+    return new Request(operation, switch (operation) {
+      case GET -> builder.GET().build();
+      case PATCH -> builder.method("PATCH", BodyPublishers.ofString("{\"completed\":true}")).build();
+      default -> builder.DELETE().build();
+    });
+  }
+
+  private HttpRequest create() {
+    return HttpRequest.newBuilder(base).timeout(TIMEOUT)
+        .POST(BodyPublishers.ofString("{\"title\":\"load test\",\"order\":1}"))
+        .build();
+  }
+
+  /**
+   * A not found is not an error, another request could have deleted the todo just before, but
+   * it's counted apart from the successes.
+   */
+  private Outcome completed(Operation operation, HttpResponse<String> response) {
+    if (response.statusCode() == 201) {
+      created(response);
+    }
+    if (response.statusCode() < 300) {
+      return Outcome.SUCCESS;
+    }
+    return operation != Operation.POST && response.statusCode() == 404 ? Outcome.NOT_FOUND : Outcome.ERROR;
+  }
+
+  private void created(HttpResponse<String> response) {
+    var matcher = ID.matcher(response.body());
+    if (matcher.find()) {
+      ids.add(Integer.parseInt(matcher.group(1)));
+    }
+  }
+
+  private record Request(Operation operation, HttpRequest http) {}
+
+  record Settings(
+      int rate, Duration warmup, Duration duration, Mix mix, int todos, long seed, Slo slo, Path report) {
+
+    static Settings fromSystemProperties() {
+      return new Settings(
+          Integer.getInteger("loadTest.rate", 500),
+          Duration.ofSeconds(Integer.getInteger("loadTest.warmup", 5)),
+          Duration.ofSeconds(Integer.getInteger("loadTest.duration", 30)),
+          Mix.parse(System.getProperty("loadTest.mix", "get:70,post:10,patch:15,delete:5")),
+          Integer.getInteger("loadTest.todos", 1000),
+          Long.getLong("loadTest.seed", 1L),
+          new Slo(
+              Duration.ofMillis(Integer.getInteger("loadTest.slo.p50", 10)),
+              Duration.ofMillis(Integer.getInteger("loadTest.slo.p99", 50)),
+              Duration.ofMillis(Integer.getInteger("loadTest.slo.p999", 200)),
+              Double.parseDouble(System.getProperty("loadTest.slo.errors", "0.001")),
+              Double.parseDouble(System.getProperty("loadTest.slo.throughput", "0.95"))),
+          Path.of(System.getProperty("loadTest.report", "build/reports/loadTest/report.json")));
+    }
+  }
+
+  /**
+   * Max latencies, max ratio of errors, and min ratio of the target rate that must be served.
+   */
+  record Slo(Duration p50, Duration p99, Duration p999, double errors, double throughput) {}
+
+  /**
+   * Weights of each operation, as {@code get:70,post:10,patch:15,delete:5}.
+   */
+  record Mix(Map<Operation, Integer> weights, int total) {
+
+    static Mix parse(String value) {
+      var weights = new EnumMap<Operation, Integer>(Operation.class);
+      for (var entry : value.split(",")) {
+        var pair = entry.split(":");
+        if (pair.length != 2) {
+          throw new IllegalArgumentException("invalid mix: " + value);
+        }
+        weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+      }
+      int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+      if (total <= 0) {
+        throw new IllegalArgumentException("invalid mix: " + value);
+      }
+      return new Mix(weights, total);
+    }
+
+    Operation next(Random random) {
+      int value = random.nextInt(total);
+      for (var entry : weights.entrySet()) {
+        value -= entry.getValue();
+        if (value < 0) {
+          return entry.getKey();
+        }
+      }
+      throw new IllegalStateException();
+    }
+  }
+
+  private static final class Ids {
+
+    private final List<Integer> values = new ArrayList<>();
+
+    synchronized void add(int id) {
+      values.add(id);
+    }
+
+    synchronized int any() {
+      return values.isEmpty() ? 0 : values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    synchronized int take() {
+      if (values.isEmpty()) {
+        return 0;
+      }
+      int index = ThreadLocalRandom.current().nextInt(values.size());
+      int last = values.removeLast();
+      return index < values.size() ? values.set(index, last) : last;
+    }
+  }
+
+  private static final class Results {
+
+    private final Map<Operation, Histogram> operations = new EnumMap<>(Operation.class);
+    private final Histogram corrected = new ConcurrentHistogram(HIGHEST_LATENCY, PRECISION);
+    private final Histogram uncorrected = new ConcurrentHistogram(HIGHEST_LATENCY, PRECISION);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder served = new LongAdder();
+
+    Results() {
+      for (var operation : Operation.values()) {
+        operations.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY, PRECISION));
+      }
+    }
+
+    void record(Operation operation, long latency, long service, Outcome outcome) {
+      long micros = Math.min(NANOSECONDS.toMicros(latency), HIGHEST_LATENCY);
+      Objects.requireNonNull(operations.get(operation)).recordValue(micros);
+      corrected.recordValue(micros);
+      uncorrected.recordValue(Math.min(NANOSECONDS.toMicros(service), HIGHEST_LATENCY));
+      switch (outcome) {
+        case ERROR -> errors.increment();
+        case NOT_FOUND -> notFound.increment();
+        case SUCCESS -> {}
+      }
+    }
+  }
+
+  record Report(int rate, Duration duration, Results results) {
+
+    long requests() {
+      return results.corrected.getTotalCount();
+    }
+
+    double throughput() {
+      return results.served.sum() / (duration.toNanos() / (double) SECONDS.toNanos(1));
+    }
+
+    double errors() {
+      return requests() == 0 ? 0 : results.errors.sum() / (double) requests();
+    }
+
+    double notFound() {
+      return requests() == 0 ? 0 : results.notFound.sum() / (double) requests();
+    }
+
+    List<String> violations(Settings settings) {
+      var slo = settings.slo();
+      var violations = new ArrayList<String>();
+      check(violations, "p50", percentile(results.corrected, 50), slo.p50());
+      check(violations, "p99", percentile(results.corrected, 99), slo.p99());
+      check(violations, "p99.9", percentile(results.corrected, 99.9), slo.p999());
+      if (errors() > slo.errors()) {
+        violations.add(String.format(Locale.ROOT, "errors %.4f over slo %.4f", errors(), slo.errors()));
+      }
+      if (throughput() < rate * slo.throughput()) {
+        violations.add(String.format(Locale.ROOT, "throughput %.1f req/s under slo %.1f req/s",
+            throughput(), rate * slo.throughput()));
+      }
+      return violations;
+    }
+
+    void print(PrintStream out) {
+      out.printf(Locale.ROOT, "target %d req/s, served %.1f req/s, %d requests, %.4f errors, %.4f not found%n",
+          rate, throughput(), requests(), errors(), notFound());
+      line(out, "all", results.corrected);
+      line(out, "all (uncorrected)", results.uncorrected);
+      results.operations.forEach((operation, histogram) -> line(out, operation.name(), histogram));
+    }
+
+    void write(Path file) throws IOException {
+      var json = new StringBuilder();
+      json.append(String.format(Locale.ROOT,
+          "{\"rate\":%d,\"throughput\":%.1f,\"requests\":%d,\"errors\":%.6f,\"notFound\":%.6f,"
+              + "\"latency\":%s,\"uncorrected\":%s,\"operations\":{",
+          rate, throughput(), requests(), errors(), notFound(),
+          latencies(results.corrected), latencies(results.uncorrected)));
+      var separator = "";
+      for (var entry : results.operations.entrySet()) {
+        json.append(separator).append('"').append(entry.getKey().name()).append("\":").append(latencies(entry.getValue()));
+        separator = ",";
+      }
+      json.append("}}\n");
+      var parent = file.getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Files.writeString(file, json);
+    }
+
+    private static void check(List<String> violations, String name, Duration value, Duration slo) {
+      if (value.compareTo(slo) > 0) {
+        violations.add(String.format(Locale.ROOT, "%s latency %.3f ms over slo %d ms",
+            name, millis(value), slo.toMillis()));
+      }
+    }
+
+    private static void line(PrintStream out, String name, Histogram histogram) {
+      out.printf(Locale.ROOT, "%-18s count %8d  p50 %9.3f ms  p99 %9.3f ms  p99.9 %9.3f ms  max %9.3f ms%n",
+          name, histogram.getTotalCount(),
+          millis(percentile(histogram, 50)), millis(percentile(histogram, 99)),
+          millis(percentile(histogram, 99.9)), millis(Duration.of(histogram.getMaxValue(), MICROSECONDS.toChronoUnit())));
+    }
+
+    private static String latencies(Histogram histogram) {
+      return String.format(Locale.ROOT, "{\"count\":%d,\"p50\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f}",
+          histogram.getTotalCount(),
+          millis(percentile(histogram, 50)), millis(percentile(histogram, 99)),
+          millis(percentile(histogram, 99.9)), millis(Duration.of(histogram.getMaxValue(), MICROSECONDS.toChronoUnit())));
+    }
+
+    private static Duration percentile(Histogram histogram, double percentile) {
+      return Duration.of(histogram.getValueAtPercentile(percentile), MICROSECONDS.toChronoUnit());
+    }
+
+    private static double millis(Duration duration) {
+      return duration.toNanos() / 1_000_000d;
+    }
+  }
+}
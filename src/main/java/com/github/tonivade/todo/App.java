@@ -5,22 +5,40 @@
 package com.github.tonivade.todo;
 
 import static com.github.tonivade.purecfg.Source.fromToml;
-import static com.github.tonivade.purefun.core.Matcher1.isNotNull;
 import static com.github.tonivade.zeromock.api.Headers.contentJson;
 import static com.github.tonivade.zeromock.api.Headers.enableCors;
-import static com.github.tonivade.zeromock.api.Matchers.jsonPath;
 import static com.github.tonivade.zeromock.api.Matchers.options;
-import static com.github.tonivade.zeromock.api.Matchers.patch;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.sql.DataSource;
 
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.UIO;
 import com.github.tonivade.purefun.type.Validation;
 import com.github.tonivade.purefun.type.Validation.Result;
 import com.github.tonivade.todo.app.TodoAPI;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.infra.AccessLog;
+import com.github.tonivade.todo.infra.BatchingTodoRepository;
+import com.github.tonivade.todo.infra.BlockIdGenerator;
+import com.github.tonivade.todo.infra.CachingTodoRepository;
+import com.github.tonivade.todo.infra.IdGenerator;
+import com.github.tonivade.todo.infra.ReplicaRouter;
+import com.github.tonivade.todo.infra.ShardedTodoRepository;
+import com.github.tonivade.todo.infra.ThrottledDataSource;
 import com.github.tonivade.todo.infra.TodoDAO;
 import com.github.tonivade.todo.infra.TodoDatabaseRepository;
+import com.github.tonivade.todo.infra.TodoInMemoryRepository;
+import com.github.tonivade.todo.infra.TodoMappedRepository;
+import com.github.tonivade.zeromock.api.Bytes;
+import com.github.tonivade.zeromock.api.HttpResponse;
 import com.github.tonivade.zeromock.api.HttpUIOService;
-import com.github.tonivade.zeromock.api.PostFilter;
-import com.github.tonivade.zeromock.api.PreFilter;
+import com.github.tonivade.zeromock.api.Responses;
 import com.github.tonivade.zeromock.server.UIOMockHttpServer;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -28,6 +46,7 @@ import com.zaxxer.hikari.HikariDataSource;
 public final class App {
 
   static final String TODO = "/todo";
+  private static final String CONTENT_TYPE = "Content-type";
 
   public static void main(String[] args) {
     loadConfig()
@@ -44,44 +63,161 @@ public final class App {
     return UIOMockHttpServer.builder()
         .host(config.server().host())
         .port(config.server().port())
+        .executor(buildExecutor(config.server()))
         .build();
   }
 
+  private static ExecutorService buildExecutor(Config.Server server) {
+    return switch (server.executor()) {
+      case "platform" -> Executors.newFixedThreadPool(server.threads());
+      default -> Executors.newVirtualThreadPerTaskExecutor();
+    };
+  }
+
   static HttpUIOService buildService(Config config) {
-    var api = new TodoAPI(buildRepository(config));
+    var repository = buildRepository(config);
+    var api = new TodoAPI(repository, listMode(config.server()));
+    var accessLog = buildAccessLog(config.logging());
 
     return new HttpUIOService("todo backend")
-        .preFilter(PreFilter.print(System.out))
+        .preFilter(accessLog.preFilter())
+        .get("/_changes").then(api::changes)
+        .get("/_stats").then(api.stats())
+        .get("/_stats/cache").then(cacheStats(repository))
         .get("/:id").then(api::find)
-        .get("/").then(api.findAll())
+        .get("/").then(api::findAll)
         .post("/").then(api::create)
+        .post("/_bulk").then(api::bulk)
         .put("/:id").then(api::update)
-        .when(patch("/:id").and(jsonPath("$.order", isNotNull())
-                .or(jsonPath("$.title", isNotNull()))
-                .or(jsonPath("$.completed", isNotNull()))))
-          .then(api::modify)
+        .patch("/:id").then(api::modify)
         .delete("/:id").then(api::delete)
         .delete("/").then(api.deleteAll())
         .when(options()).then(api.cors())
         .postFilter(enableCors())
-        .postFilter(contentJson())
-        .postFilter(PostFilter.print(System.out));
+        .postFilter(response -> response.headers().contains(CONTENT_TYPE) ? response : contentJson().apply(response))
+        .postFilter(accessLog.postFilter());
+  }
+
+  /**
+   * {@code GET /todo/_stats/cache}, the counters of the cache of todos, or not found if it's
+   * not enabled.
+   */
+  private static UIO<HttpResponse> cacheStats(TodoRepository<Task<?>> repository) {
+    if (repository instanceof CachingTodoRepository caching) {
+      return Task.task(caching::stats)
+          .map(stats -> Bytes.asBytes(String.format(Locale.ROOT,
+              "{\"hits\":%d,\"misses\":%d,\"evictions\":%d,\"size\":%d}",
+              stats.hits(), stats.misses(), stats.evictions(), stats.size())))
+          .fold(Responses::error, Responses::ok);
+    }
+    return UIO.pure(Responses.notFound());
+  }
+
+  private static TodoAPI.ListMode listMode(Config.Server server) {
+    return switch (server.lists()) {
+      case "streaming" -> TodoAPI.ListMode.STREAMING;
+      case "direct" -> TodoAPI.ListMode.DIRECT;
+      default -> TodoAPI.ListMode.BUFFERED;
+    };
+  }
+
+  private static AccessLog buildAccessLog(Config.Logging logging) {
+    var appender = switch (logging.appender()) {
+      case "file" -> AccessLog.Appender.file(Path.of(logging.file()));
+      default -> AccessLog.Appender.logback("access");
+    };
+    var policy = switch (logging.policy()) {
+      case "block" -> AccessLog.Policy.BLOCK;
+      default -> AccessLog.Policy.DROP;
+    };
+    var accessLog = new AccessLog(appender, policy, logging.bufferSize(), logging.batchSize());
+    Runtime.getRuntime().addShutdownHook(new Thread(accessLog::close));
+    return accessLog;
+  }
+
+  private static TodoRepository<Task<?>> buildRepository(Config config) {
+    TodoRepository<Task<?>> repository = switch (config.storage().type()) {
+      case "memory" -> new TodoInMemoryRepository();
+      case "journal" -> buildJournalRepository(config.storage());
+      case "mapped" -> buildMappedRepository(config.storage());
+      default -> buildDatabaseRepository(config.database());
+    };
+    var writeBehind = config.storage().writeBehind();
+    if (writeBehind.enabled()) {
+      var batching = new BatchingTodoRepository(
+          repository, writeBehind.batchSize(), Duration.ofMillis(writeBehind.maxDelay()));
+      Runtime.getRuntime().addShutdownHook(new Thread(batching::close));
+      repository = batching;
+    }
+    if (config.cache().enabled()) {
+      return new CachingTodoRepository(repository, config.cache().size());
+    }
+    return repository;
+  }
+
+  private static TodoRepository<Task<?>> buildDatabaseRepository(Config.Database database) {
+    var shards = new ArrayList<Config.Shard>();
+    database.shards().forEach(shards::add);
+    if (!shards.isEmpty()) {
+      return buildShardedRepository(shards);
+    }
+
+    var dao = new TodoDAO();
+    var dataSource = createDataSource(database.url(), database.user(), database.password());
+
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+
+    return new TodoDatabaseRepository(dao, buildRouter(dataSource, database));
   }
 
-  private static TodoDatabaseRepository buildRepository(Config config) {
+  private static TodoRepository<Task<?>> buildShardedRepository(List<Config.Shard> shards) {
     var dao = new TodoDAO();
-    var dataSource = createDataSource(config.database());
+    var repositories = new ArrayList<TodoRepository<Task<?>>>();
+    for (int i = 0; i < shards.size(); i++) {
+      var shard = shards.get(i);
+      var dataSource = createDataSource(shard.url(), shard.user(), shard.password());
+
+      dao.create().safeRunIO(dataSource).unsafeRunSync();
 
-    dao.create().unsafeRun(dataSource);
+      var ids = IdGenerator.sharded(new BlockIdGenerator(dao, dataSource), i, shards.size());
+      repositories.add(new TodoDatabaseRepository(dao, ReplicaRouter.primaryOnly(dataSource), ids));
+    }
+    var repository = new ShardedTodoRepository(repositories);
+    Runtime.getRuntime().addShutdownHook(new Thread(repository::close));
+    return repository;
+  }
+
+  private static ReplicaRouter buildRouter(DataSource primary, Config.Database database) {
+    var replication = database.replication();
+    var replicas = new ArrayList<ThrottledDataSource>();
+    for (var url : replication.replicas()) {
+      replicas.add(createDataSource(url, database.user(), database.password()));
+    }
+    var selection = switch (replication.selection()) {
+      case "least-busy" -> ReplicaRouter.Selection.LEAST_BUSY;
+      default -> ReplicaRouter.Selection.ROUND_ROBIN;
+    };
+    return new ReplicaRouter(primary, replicas, selection, Duration.ofMillis(replication.window()));
+  }
+
+  private static TodoRepository<Task<?>> buildJournalRepository(Config.Storage storage) {
+    var repository = new TodoInMemoryRepository(Path.of(storage.path()), Duration.ofSeconds(storage.snapshotInterval()));
+    Runtime.getRuntime().addShutdownHook(new Thread(repository::close));
+    return repository;
+  }
 
-    return new TodoDatabaseRepository(dao, dataSource);
+  private static TodoRepository<Task<?>> buildMappedRepository(Config.Storage storage) {
+    var repository = new TodoMappedRepository(Path.of(storage.path()));
+    Runtime.getRuntime().addShutdownHook(new Thread(repository::close));
+    return repository;
   }
 
-  private static DataSource createDataSource(Config.Database database) {
+  private static ThrottledDataSource createDataSource(String url, String user, String password) {
     var configuration = new HikariConfig();
-    configuration.setJdbcUrl(database.url());
-    configuration.setUsername(database.user());
-    configuration.setPassword(database.password());
-    return new HikariDataSource(configuration);
+    configuration.setJdbcUrl(url);
+    configuration.setUsername(user);
+    configuration.setPassword(password);
+    var dataSource = new HikariDataSource(configuration);
+    return new ThrottledDataSource(dataSource, dataSource.getMaximumPoolSize());
   }
 }
\ No newline at end of file
@@ -6,48 +6,183 @@ package com.github.tonivade.todo;
 
 import com.github.tonivade.purecfg.PureCFG;
 import static com.github.tonivade.purecfg.PureCFG.mapN;
+import static com.github.tonivade.purecfg.PureCFG.readBoolean;
 import static com.github.tonivade.purecfg.PureCFG.readConfig;
 import static com.github.tonivade.purecfg.PureCFG.readInt;
+import static com.github.tonivade.purecfg.PureCFG.readIterable;
+import static com.github.tonivade.purecfg.PureCFG.readPrimitiveIterable;
 import static com.github.tonivade.purecfg.PureCFG.readString;
+import static com.github.tonivade.purefun.core.Precondition.check;
 import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
 import static com.github.tonivade.purefun.core.Precondition.checkRange;
 
-public record Config(Server server, Database database) {
+public record Config(Server server, Database database, Logging logging, Cache cache, Storage storage) {
 
   public Config {
     checkNonNull(server);
     checkNonNull(database);
+    checkNonNull(logging);
+    checkNonNull(cache);
+    checkNonNull(storage);
   }
 
   public static PureCFG<Config> load() {
     return mapN(
         readConfig("server", Server.load()),
-        readConfig("database", Database.load())).apply(Config::new);
+        readConfig("database", Database.load()),
+        readConfig("logging", Logging.load()),
+        readConfig("cache", Cache.load()),
+        readConfig("storage", Storage.load())).apply(Config::new);
   }
 
-  public record Server(String host, Integer port) {
+  public record Server(String host, Integer port, String lists, String executor, Integer threads) {
 
     public Server {
       checkNonNull(host);
       checkNonNull(port);
+      checkNonNull(lists);
+      checkNonNull(executor);
+      checkNonNull(threads);
       checkRange(port, 1024, 65535);
+      check(() -> lists.equals("buffered") || lists.equals("streaming") || lists.equals("direct"),
+          "lists must be buffered, streaming or direct");
+      check(() -> executor.equals("virtual") || executor.equals("platform"), "executor must be virtual or platform");
+      checkPositive(threads, "threads must be a positive value");
     }
 
     public static PureCFG<Server> load() {
-      return mapN(readString("host"), readInt("port")).apply(Server::new);
+      return mapN(
+          readString("host"),
+          readInt("port"),
+          readString("lists"),
+          readString("executor"),
+          readInt("threads")).apply(Server::new);
     }
   }
 
-  public record Database(String url, String user, String password) {
+  public record Database(String url, String user, String password, Iterable<Shard> shards, Replication replication) {
 
     public Database {
       checkNonNull(url);
       checkNonNull(user);
       checkNonNull(password);
+      checkNonNull(shards);
+      checkNonNull(replication);
     }
 
     public static PureCFG<Database> load() {
-      return mapN(readString("url"), readString("user"), readString("password")).apply(Database::new);
+      return mapN(
+          readString("url"),
+          readString("user"),
+          readString("password"),
+          readIterable("shards", Shard.load()),
+          readConfig("replication", Replication.load())).apply(Database::new);
+    }
+  }
+
+  public record Shard(String url, String user, String password) {
+
+    public Shard {
+      checkNonNull(url);
+      checkNonNull(user);
+      checkNonNull(password);
+    }
+
+    public static PureCFG<Shard> load() {
+      return mapN(readString("url"), readString("user"), readString("password")).apply(Shard::new);
+    }
+  }
+
+  public record Replication(Iterable<String> replicas, String selection, Integer window) {
+
+    public Replication {
+      checkNonNull(replicas);
+      checkNonNull(selection);
+      checkNonNull(window);
+      check(() -> selection.equals("round-robin") || selection.equals("least-busy"),
+          "selection must be round-robin or least-busy");
+      check(() -> window >= 0, "window must not be a negative value");
+    }
+
+    public static PureCFG<Replication> load() {
+      return mapN(
+          readPrimitiveIterable("replicas", String.class),
+          readString("selection"),
+          readInt("window")).apply(Replication::new);
+    }
+  }
+
+  public record Logging(String appender, String file, String policy, Integer bufferSize, Integer batchSize) {
+
+    public Logging {
+      checkNonNull(appender);
+      checkNonNull(file);
+      checkNonNull(policy);
+      checkNonNull(bufferSize);
+      checkNonNull(batchSize);
+      check(() -> appender.equals("logback") || appender.equals("file"), "appender must be logback or file");
+      check(() -> policy.equals("drop") || policy.equals("block"), "policy must be drop or block");
+      checkPositive(bufferSize, "bufferSize must be a positive value");
+      checkPositive(batchSize, "batchSize must be a positive value");
+    }
+
+    public static PureCFG<Logging> load() {
+      return mapN(
+          readString("appender"),
+          readString("file"),
+          readString("policy"),
+          readInt("bufferSize"),
+          readInt("batchSize")).apply(Logging::new);
+    }
+  }
+
+  public record Cache(Boolean enabled, Integer size) {
+
+    public Cache {
+      checkNonNull(enabled);
+      checkNonNull(size);
+      checkPositive(size, "size must be a positive value");
+    }
+
+    public static PureCFG<Cache> load() {
+      return mapN(readBoolean("enabled"), readInt("size")).apply(Cache::new);
+    }
+  }
+
+  public record Storage(String type, String path, Integer snapshotInterval, WriteBehind writeBehind) {
+
+    public Storage {
+      checkNonNull(type);
+      checkNonNull(path);
+      checkNonNull(snapshotInterval);
+      checkNonNull(writeBehind);
+      check(() -> type.equals("database") || type.equals("memory") || type.equals("journal") || type.equals("mapped"),
+          "type must be database, memory, journal or mapped");
+      checkPositive(snapshotInterval, "snapshotInterval must be a positive value");
+    }
+
+    public static PureCFG<Storage> load() {
+      return mapN(
+          readString("type"),
+          readString("path"),
+          readInt("snapshotInterval"),
+          readConfig("writeBehind", WriteBehind.load())).apply(Storage::new);
+    }
+  }
+
+  public record WriteBehind(Boolean enabled, Integer batchSize, Integer maxDelay) {
+
+    public WriteBehind {
+      checkNonNull(enabled);
+      checkNonNull(batchSize);
+      checkNonNull(maxDelay);
+      checkPositive(batchSize, "batchSize must be a positive value");
+      checkPositive(maxDelay, "maxDelay must be a positive value");
+    }
+
+    public static PureCFG<WriteBehind> load() {
+      return mapN(readBoolean("enabled"), readInt("batchSize"), readInt("maxDelay")).apply(WriteBehind::new);
     }
   }
 }
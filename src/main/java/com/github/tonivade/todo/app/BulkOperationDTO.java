@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.type.Validation.requirePositive;
+import static java.util.Objects.isNull;
+import com.github.tonivade.purefun.type.Either;
+import com.github.tonivade.purejson.Json;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.TodoOperation;
+
+@Json
+public record BulkOperationDTO(String op, TodoDTO todo) {
+
+  public Either<Throwable, TodoOperation> toDomain() {
+    if (isNull(op) || isNull(todo)) {
+      return Either.left(new IllegalArgumentException("op and todo are required"));
+    }
+    return switch (op) {
+      case "create" -> todo.toDraft().map(TodoOperation.Create::new);
+      case "update" -> todo.toDomain().map(TodoOperation.Update::new);
+      case "delete" -> requirePositive(todo.id()).map(Id::new).<TodoOperation>map(TodoOperation.Delete::new)
+          .<Throwable>mapError(IllegalArgumentException::new).toEither();
+      default -> Either.left(new IllegalArgumentException("unknown operation " + op));
+    };
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purejson.Json;
+import com.github.tonivade.todo.domain.TodoOperation;
+
+@Json
+public record BulkResultDTO(Integer status, @Nullable Integer id, @Nullable TodoDTO todo, @Nullable String error) {
+
+  public static BulkResultDTO fromError(Throwable error) {
+    return new BulkResultDTO(400, null, null, error.getMessage());
+  }
+
+  public static BulkResultDTO fromDomain(Option<TodoOperation> result) {
+    return result.fold(
+        () -> new BulkResultDTO(404, null, null, "not found"),
+        operation -> switch (operation) {
+          case TodoOperation.Create(var todo) -> new BulkResultDTO(201, todo.getId(), TodoDTO.fromDomain(todo), null);
+          case TodoOperation.Update(var todo) -> new BulkResultDTO(200, todo.getId(), TodoDTO.fromDomain(todo), null);
+          case TodoOperation.Delete(var id) -> new BulkResultDTO(200, id.value(), null, null);
+        });
+  }
+}
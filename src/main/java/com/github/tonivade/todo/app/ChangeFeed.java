@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Changes of the todos, published once to a ring buffer that every subscriber reads from
+ * its own cursor, the sequence of the last event it got. A subscriber waits until there are
+ * events after its cursor, and gets at most a batch of them. A subscriber so slow that the
+ * events after its cursor have been overwritten gets a resync event instead, that tells it
+ * to read everything again and continue from the current sequence. Sequences start again on
+ * every start, so a cursor from the future gets a resync too.
+ */
+final class ChangeFeed {
+
+  static final String CREATE = "create";
+  static final String UPDATE = "update";
+  static final String DELETE = "delete";
+  static final String CLEAR = "clear";
+  static final String RESYNC = "resync";
+
+  private static final byte[] EMPTY = "{}".getBytes(StandardCharsets.UTF_8);
+
+  record Event(long sequence, String type, Bytes data) {}
+
+  private final Function1<Todo, Bytes> encoder;
+  private final Event[] ring;
+  private final int batchSize;
+  private final Semaphore subscribers;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition published = lock.newCondition();
+
+  private long last;
+
+  ChangeFeed(Function1<Todo, Bytes> encoder, int capacity, int batchSize, int maxSubscribers) {
+    checkPositive(capacity, "capacity must be a positive value");
+    checkPositive(batchSize, "batchSize must be a positive value");
+    checkPositive(maxSubscribers, "maxSubscribers must be a positive value");
+    this.encoder = checkNonNull(encoder);
+    this.ring = new Event[capacity];
+    this.batchSize = batchSize;
+    this.subscribers = new Semaphore(maxSubscribers);
+  }
+
+  long last() {
+    lock.lock();
+    try {
+      return last;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void publish(TodoOperation operation) {
+    switch (operation) {
+      case TodoOperation.Create(var todo) -> publish(CREATE, encoder.apply(todo));
+      case TodoOperation.Update(var todo) -> publish(UPDATE, encoder.apply(todo));
+      case TodoOperation.Delete(var id) ->
+        publish(DELETE, Bytes.fromArray(("{\"id\":" + id.value() + "}").getBytes(StandardCharsets.UTF_8)));
+    }
+  }
+
+  void publishClear() {
+    publish(CLEAR, Bytes.fromArray(EMPTY));
+  }
+
+  /**
+   * For the writes that failed, it's not known what changed, so all the subscribers are told
+   * to read everything again.
+   */
+  void publishResync() {
+    publish(RESYNC, Bytes.fromArray(EMPTY));
+  }
+
+  /**
+   * Events after the cursor, waiting at most the timeout for the first one, or none if the
+   * number of subscribers waiting is already the maximum.
+   */
+  Option<List<Event>> poll(long cursor, Duration timeout) throws InterruptedException {
+    if (cursor < 0) {
+      throw new IllegalArgumentException("cursor cannot be negative");
+    }
+    if (!subscribers.tryAcquire()) {
+      return Option.none();
+    }
+    try {
+      return Option.some(await(cursor, timeout.toNanos()));
+    } finally {
+      subscribers.release();
+    }
+  }
+
+  /**
+   * Every response starts with the cursor as the id, with no data, so a client that got no
+   * events reconnects from it too.
+   */
+  static Bytes encode(long cursor, List<Event> events, long retry) {
+    var output = new ByteArrayOutputStream();
+    output.writeBytes(("retry: " + retry + "\nid: " + cursor + "\n\n").getBytes(StandardCharsets.UTF_8));
+    for (var event : events) {
+      output.writeBytes(("id: " + event.sequence() + "\nevent: " + event.type() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+      output.writeBytes(event.data().toArray());
+      output.writeBytes(new byte[] { '\n', '\n' });
+    }
+    return Bytes.fromArray(output.toByteArray());
+  }
+
+  private void publish(String type, Bytes data) {
+    lock.lock();
+    try {
+      last++;
+      ring[(int) (last % ring.length)] = new Event(last, type, data);
+      published.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<Event> await(long cursor, long nanos) throws InterruptedException {
+    lock.lock();
+    try {
+      while (cursor == last && nanos > 0) {
+        nanos = published.awaitNanos(nanos);
+      }
+      if (cursor > last || cursor < last - ring.length) {
+        return List.of(new Event(last, RESYNC, Bytes.fromArray(EMPTY)));
+      }
+      var events = new ArrayList<Event>();
+      for (long sequence = cursor + 1; sequence <= last && events.size() < batchSize; sequence++) {
+        events.add(ring[(int) (sequence % ring.length)]);
+      }
+      return events;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Encoded json of every todo, and of the whole list, tagged with the versions. An entry is
+ * only valid while the version is the same. An entry is only stored if nothing was written
+ * since the version was taken, before reading from the repository, so a slow read can never
+ * store an old todo as the current one, nor one deleted after the read.
+ *
+ * <p>At most {@code maximumSize} todos are kept, the first ones read, so the cache never
+ * holds a second copy of a big dataset. Writes make room again, the list is always kept.</p>
+ */
+final class JsonCache {
+
+  private final TodoVersions versions = new TodoVersions();
+  private final Function1<Todo, Bytes> encoder;
+  private final int maximumSize;
+  private final Map<Integer, Fragment> fragments = new ConcurrentHashMap<>();
+
+  private volatile @Nullable Fragment list;
+
+  JsonCache(Function1<Todo, Bytes> encoder, int maximumSize) {
+    checkPositive(maximumSize, "maximum size must be a positive value");
+    this.encoder = checkNonNull(encoder);
+    this.maximumSize = maximumSize;
+  }
+
+  TodoVersions versions() {
+    return versions;
+  }
+
+  Option<Bytes> todo(int id) {
+    var fragment = fragments.get(id);
+    if (fragment != null && fragment.version() == versions.stamp(id)) {
+      return Option.some(fragment.json());
+    }
+    return Option.none();
+  }
+
+  /**
+   * Encoded todo, read from the repository when the version was {@code version}.
+   */
+  Bytes todo(Todo todo, long version) {
+    var cached = todo(todo.getId());
+    if (cached.isPresent()) {
+      return cached.getOrElseThrow();
+    }
+    var json = encoder.apply(todo);
+    long stamp = versions.stamp(todo.getId());
+    if (stamp <= version && versions.deleted() <= version
+        && (fragments.size() < maximumSize || fragments.containsKey(todo.getId()))) {
+      fragments.put(todo.getId(), new Fragment(stamp, json));
+    }
+    return json;
+  }
+
+  Option<Bytes> list() {
+    var current = list;
+    if (current != null && current.version() == versions.version()) {
+      return Option.some(current.json());
+    }
+    return Option.none();
+  }
+
+  /**
+   * Writer of the list read from the repository when the version was {@code version}, made
+   * of the encoded todos. The list is stored when the writer is closed with {@link #list(TodoListWriter, long)}.
+   */
+  TodoListWriter writer(long version) {
+    return new TodoListWriter(todo -> todo(todo, version));
+  }
+
+  Bytes list(TodoListWriter writer, long version) {
+    var json = writer.close();
+    if (versions.version() == version) {
+      list = new Fragment(version, json);
+    }
+    return json;
+  }
+
+  Bytes list(Sequence<Todo> todos, long version) {
+    var writer = writer(version);
+    todos.forEach(writer::append);
+    return list(writer, version);
+  }
+
+  void written(int id) {
+    versions.written(id);
+    fragments.remove(id);
+  }
+
+  void deleted(int id) {
+    versions.deleted(id);
+    fragments.remove(id);
+  }
+
+  void writtenAll() {
+    versions.writtenAll();
+    fragments.clear();
+  }
+
+  private record Fragment(long version, Bytes json) {}
+}
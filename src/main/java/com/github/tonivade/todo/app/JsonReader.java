@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Pull parser over the utf-8 bytes of a flat json object, with string, number, boolean and
+ * null values. Values of other fields, nested objects and arrays included, can be skipped.
+ * It is enough for the bodies this api accepts and it avoids building a tree or
+ * an intermediate string of the whole document. Any syntax error is reported as an
+ * {@link IllegalArgumentException}.
+ */
+final class JsonReader {
+
+  private static final int MAX_DEPTH = 32;
+
+  private final byte[] input;
+  private int position;
+  private boolean first = true;
+
+  JsonReader(byte[] input) {
+    this.input = checkNonNull(input);
+  }
+
+  void beginObject() {
+    expect('{');
+  }
+
+  boolean hasNext() {
+    skipWhitespace();
+    if (peek() == '}') {
+      return false;
+    }
+    if (!first) {
+      expect(',');
+    }
+    first = false;
+    return true;
+  }
+
+  String nextName() {
+    skipWhitespace();
+    var name = readString();
+    expect(':');
+    return name;
+  }
+
+  void endObject() {
+    expect('}');
+    skipWhitespace();
+    if (position < input.length) {
+      throw error("unexpected content after object");
+    }
+  }
+
+  @Nullable
+  String nextString() {
+    if (nextNull()) {
+      return null;
+    }
+    return readString();
+  }
+
+  @Nullable
+  Integer nextInt() {
+    if (nextNull()) {
+      return null;
+    }
+    boolean negative = peek() == '-';
+    if (negative) {
+      position++;
+    }
+    long value = 0;
+    int start = position;
+    while (position < input.length && input[position] >= '0' && input[position] <= '9') {
+      value = value * 10 + (input[position++] - '0');
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw error("number out of range");
+      }
+    }
+    if (position == start) {
+      throw error("number expected");
+    }
+    if (position < input.length && (input[position] == '.' || input[position] == 'e' || input[position] == 'E')) {
+      throw error("integer expected");
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw error("number out of range");
+    }
+    return (int) value;
+  }
+
+  @Nullable
+  Boolean nextBoolean() {
+    if (nextNull()) {
+      return null;
+    }
+    if (matches("true")) {
+      return Boolean.TRUE;
+    }
+    if (matches("false")) {
+      return Boolean.FALSE;
+    }
+    throw error("boolean expected");
+  }
+
+  /**
+   * Skips any value, objects and arrays are skipped with all their content.
+   */
+  void skipValue() {
+    skipValue(0);
+  }
+
+  private void skipValue(int depth) {
+    if (depth > MAX_DEPTH) {
+      throw error("too many nested values");
+    }
+    skipWhitespace();
+    switch (peek()) {
+      case '{' -> skipObject(depth + 1);
+      case '[' -> skipArray(depth + 1);
+      case '"' -> readString();
+      case 't', 'f' -> nextBoolean();
+      case 'n' -> {
+        if (!nextNull()) {
+          throw error("value expected");
+        }
+      }
+      default -> skipNumber();
+    }
+  }
+
+  private void skipObject(int depth) {
+    expect('{');
+    skipWhitespace();
+    if (peek() == '}') {
+      position++;
+      return;
+    }
+    do {
+      skipWhitespace();
+      readString();
+      expect(':');
+      skipValue(depth);
+      skipWhitespace();
+    } while (next(','));
+    expect('}');
+  }
+
+  private void skipArray(int depth) {
+    expect('[');
+    skipWhitespace();
+    if (peek() == ']') {
+      position++;
+      return;
+    }
+    do {
+      skipValue(depth);
+      skipWhitespace();
+    } while (next(','));
+    expect(']');
+  }
+
+  private boolean next(char separator) {
+    if (peek() == separator) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void skipNumber() {
+    int start = position;
+    while (position < input.length && (input[position] == '-' || input[position] == '+' || input[position] == '.'
+        || input[position] == 'e' || input[position] == 'E' || (input[position] >= '0' && input[position] <= '9'))) {
+      position++;
+    }
+    if (position == start) {
+      throw error("value expected");
+    }
+  }
+
+  private boolean nextNull() {
+    skipWhitespace();
+    return matches("null");
+  }
+
+  private boolean matches(String literal) {
+    int length = literal.length();
+    if (position + length > input.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (input[position + i] != literal.charAt(i)) {
+        return false;
+      }
+    }
+    position += length;
+    return true;
+  }
+
+  private String readString() {
+    expect('"');
+    int start = position;
+    while (position < input.length && input[position] != '"' && input[position] != '\\') {
+      position++;
+    }
+    if (position < input.length && input[position] == '"') {
+      return new String(input, start, position++ - start, StandardCharsets.UTF_8);
+    }
+    position = start;
+    return readEscapedString();
+  }
+
+  private String readEscapedString() {
+    var builder = new StringBuilder();
+    int start = position;
+    while (position < input.length) {
+      byte current = input[position];
+      if (current == '"') {
+        builder.append(new String(input, start, position++ - start, StandardCharsets.UTF_8));
+        return builder.toString();
+      }
+      if (current != '\\') {
+        position++;
+        continue;
+      }
+      builder.append(new String(input, start, position - start, StandardCharsets.UTF_8));
+      position++;
+      if (position >= input.length) {
+        break;
+      }
+      switch (input[position++]) {
+        case '"' -> builder.append('"');
+        case '\\' -> builder.append('\\');
+        case '/' -> builder.append('/');
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> builder.append(readUnicode());
+        default -> throw error("invalid escape sequence");
+      }
+      start = position;
+    }
+    throw error("unterminated string");
+  }
+
+  private char readUnicode() {
+    if (position + 4 > input.length) {
+      throw error("invalid unicode escape");
+    }
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = Character.digit(input[position++], 16);
+      if (digit < 0) {
+        throw error("invalid unicode escape");
+      }
+      value = (value << 4) | digit;
+    }
+    return (char) value;
+  }
+
+  private void expect(char expected) {
+    skipWhitespace();
+    if (peek() != expected) {
+      throw error("'" + expected + "' expected");
+    }
+    position++;
+  }
+
+  private int peek() {
+    return position < input.length ? input[position] : -1;
+  }
+
+  private void skipWhitespace() {
+    while (position < input.length
+        && (input[position] == ' ' || input[position] == '\n' || input[position] == '\r' || input[position] == '\t')) {
+      position++;
+    }
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at position " + position);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.Arrays;
+
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Growable buffer of utf-8 json. Strings and numbers are encoded directly into the buffer,
+ * without intermediate strings, the structure is written by the caller with raw bytes.
+ */
+final class JsonWriter {
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes();
+  private static final byte[] NULL = "null".getBytes();
+  private static final byte[] TRUE = "true".getBytes();
+  private static final byte[] FALSE = "false".getBytes();
+
+  private byte[] buffer;
+  private int size;
+
+  JsonWriter(int capacity) {
+    checkPositive(capacity, "capacity must be a positive value");
+    this.buffer = new byte[capacity];
+  }
+
+  JsonWriter raw(char value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+    return this;
+  }
+
+  JsonWriter raw(byte[] value) {
+    ensureCapacity(value.length);
+    System.arraycopy(value, 0, buffer, size, value.length);
+    size += value.length;
+    return this;
+  }
+
+  JsonWriter nullValue() {
+    return raw(NULL);
+  }
+
+  JsonWriter value(boolean value) {
+    return raw(value ? TRUE : FALSE);
+  }
+
+  JsonWriter value(int value) {
+    ensureCapacity(11);
+    long remaining = value;
+    if (remaining < 0) {
+      buffer[size++] = '-';
+      remaining = -remaining;
+    }
+    int digits = 1;
+    for (long limit = 10; remaining >= limit && digits < 10; limit *= 10) {
+      digits++;
+    }
+    for (int i = size + digits - 1; i >= size; i--) {
+      buffer[i] = (byte) ('0' + remaining % 10);
+      remaining /= 10;
+    }
+    size += digits;
+    return this;
+  }
+
+  /**
+   * Quoted and escaped string. Unpaired surrogates are written as {@code ?}, like
+   * {@link String#getBytes(java.nio.charset.Charset)} does.
+   */
+  JsonWriter value(String value) {
+    ensureCapacity(value.length() + 2);
+    buffer[size++] = '"';
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+        ensureCapacity(2);
+        buffer[size++] = (byte) c;
+      } else if (c < 0x80) {
+        escape(c);
+      } else if (c < 0x800) {
+        ensureCapacity(3);
+        buffer[size++] = (byte) (0xc0 | c >> 6);
+        buffer[size++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        ensureCapacity(5);
+        buffer[size++] = (byte) (0xf0 | codePoint >> 18);
+        buffer[size++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+        buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+        buffer[size++] = (byte) (0x80 | codePoint & 0x3f);
+      } else if (Character.isSurrogate(c)) {
+        ensureCapacity(2);
+        buffer[size++] = '?';
+      } else {
+        ensureCapacity(4);
+        buffer[size++] = (byte) (0xe0 | c >> 12);
+        buffer[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+        buffer[size++] = (byte) (0x80 | c & 0x3f);
+      }
+    }
+    ensureCapacity(1);
+    buffer[size++] = '"';
+    return this;
+  }
+
+  Bytes toBytes() {
+    return Bytes.fromArray(Arrays.copyOf(buffer, size));
+  }
+
+  private void escape(char c) {
+    ensureCapacity(7);
+    buffer[size++] = '\\';
+    switch (c) {
+      case '"' -> buffer[size++] = '"';
+      case '\\' -> buffer[size++] = '\\';
+      case '\n' -> buffer[size++] = 'n';
+      case '\r' -> buffer[size++] = 'r';
+      case '\t' -> buffer[size++] = 't';
+      case '\b' -> buffer[size++] = 'b';
+      case '\f' -> buffer[size++] = 'f';
+      default -> {
+        buffer[size++] = 'u';
+        buffer[size++] = '0';
+        buffer[size++] = '0';
+        buffer[size++] = HEX[c >> 4];
+        buffer[size++] = HEX[c & 0xf];
+      }
+    }
+  }
+
+  private void ensureCapacity(int length) {
+    if (size + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+    }
+  }
+}
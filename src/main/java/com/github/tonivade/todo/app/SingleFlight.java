@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.type.Try;
+
+/**
+ * Concurrent calls with the same key share one execution. The first caller runs the task and
+ * the ones that arrive while it is running wait for its result, that is not kept after it
+ * finishes. After a write, {@link #invalidate()} forgets the executions in flight, so the
+ * calls that arrive later run again and see the write.
+ */
+public final class SingleFlight<K, V> {
+
+  public record Stats(long calls, long shared) {
+
+    public double ratio() {
+      return calls == 0 ? 0 : (double) shared / calls;
+    }
+  }
+
+  private final Map<K, CompletableFuture<Try<V>>> inFlight = new ConcurrentHashMap<>();
+
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder shared = new LongAdder();
+
+  public Task<V> run(K key, Task<V> task) {
+    checkNonNull(key);
+    checkNonNull(task);
+    return Task.task(() -> execute(key, task)).flatMap(Task::fromTry);
+  }
+
+  public void invalidate() {
+    inFlight.clear();
+  }
+
+  public Stats stats() {
+    return new Stats(calls.sum(), shared.sum());
+  }
+
+  private Try<V> execute(K key, Task<V> task) {
+    calls.increment();
+    var flight = new CompletableFuture<Try<V>>();
+    var current = inFlight.putIfAbsent(key, flight);
+    if (current != null) {
+      shared.increment();
+      return current.join();
+    }
+    try {
+      var result = task.safeRunSync();
+      flight.complete(result);
+      return result;
+    } finally {
+      inFlight.remove(key, flight);
+      // nobody must wait forever if the task didn't finish normally
+      flight.complete(Try.failure(new IllegalStateException("execution not finished")));
+    }
+  }
+}
@@ -5,44 +5,113 @@
 package com.github.tonivade.todo.app;
 
 import static com.github.tonivade.purefun.core.Function1.cons;
+import static com.github.tonivade.purefun.core.Function1.identity;
 import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
 import static com.github.tonivade.purefun.effect.Task.liftEither;
 import static com.github.tonivade.purefun.effect.Task.liftTry;
-import static com.github.tonivade.todo.app.TodoDTO.fromDomain;
-import static com.github.tonivade.zeromock.api.Deserializers.jsonToObject;
 import static com.github.tonivade.zeromock.api.Extractors.pathParam;
 import com.github.tonivade.purefun.core.Function1;
-import com.github.tonivade.purefun.core.Function2;
 import com.github.tonivade.purefun.core.Operator1;
-import com.github.tonivade.purefun.core.Producer;
 import com.github.tonivade.purefun.core.Tuple2;
-import com.github.tonivade.purefun.core.Tuple3;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.Sequence;
 import com.github.tonivade.purefun.effect.Task;
 import com.github.tonivade.purefun.effect.TaskOf;
 import com.github.tonivade.purefun.effect.UIO;
+import com.github.tonivade.purefun.type.Either;
 import com.github.tonivade.purefun.type.Option;
-import com.github.tonivade.purefun.typeclasses.Instances;
 import com.github.tonivade.purejson.TypeToken;
 import com.github.tonivade.todo.domain.Id;
 import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoQuery;
 import com.github.tonivade.todo.domain.TodoRepository;
 import com.github.tonivade.zeromock.api.Bytes;
-import com.github.tonivade.zeromock.api.Extractors;
+import com.github.tonivade.zeromock.api.Deserializers;
+import com.github.tonivade.zeromock.api.HttpHeaders;
 import com.github.tonivade.zeromock.api.HttpRequest;
 import com.github.tonivade.zeromock.api.HttpResponse;
+import com.github.tonivade.zeromock.api.HttpStatus;
 import com.github.tonivade.zeromock.api.Responses;
 import com.github.tonivade.zeromock.api.Serializers;
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 public final class TodoAPI {
 
+  private static final String AFTER = "after";
+  private static final String LIMIT = "limit";
+  private static final String COMPLETED = "completed";
+  private static final String SORT = "sort";
+  private static final String QUERY = "q";
+  private static final int DEFAULT_LIMIT = 100;
+  private static final int MAX_LIMIT = 1000;
+  // ids are positive, so it can't be the key of a todo
+  private static final int ALL = 0;
+  private static final int STRIPES = 64;
+  private static final int JSON_CACHE_SIZE = 10_000;
+  private static final String ETAG = "ETag";
+  private static final String IF_MATCH = "If-Match";
+  private static final String IF_NONE_MATCH = "If-None-Match";
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+  private static final String SINCE = "since";
+  private static final String TIMEOUT = "timeout";
+  private static final String CONTENT_TYPE = "Content-type";
+  private static final String EVENT_STREAM = "text/event-stream";
+  private static final int CHANGES_CAPACITY = 4096;
+  private static final int CHANGES_BATCH = 256;
+  private static final int MAX_SUBSCRIBERS = 10_000;
+  private static final Duration CHANGES_TIMEOUT = Duration.ofSeconds(25);
+  private static final long CHANGES_RETRY = 100;
+
+  /**
+   * How the whole list is read and encoded. Direct reads the fields of the rows and encodes
+   * them into the response, without building todos or dtos.
+   */
+  public enum ListMode { BUFFERED, STREAMING, DIRECT }
+
   private final TodoRepository<Task<?>> repository;
+  private final ListMode listMode;
+  private final SingleFlight<Integer, Bytes> reads = new SingleFlight<>();
+  private final JsonCache json = new JsonCache(TodoListWriter.encoder(), JSON_CACHE_SIZE);
+  private final ChangeFeed changes =
+      new ChangeFeed(TodoListWriter.encoder(), CHANGES_CAPACITY, CHANGES_BATCH, MAX_SUBSCRIBERS);
+  private final TodoWrites writes = new TodoWrites(reads, json, changes, STRIPES);
 
-  private final Type seqOfTodos = new TypeToken<Sequence<TodoDTO>>() {}.getType();
+  private final Type seqOfOperations = new TypeToken<ImmutableList<BulkOperationDTO>>() {}.getType();
+  private final Type seqOfResults = new TypeToken<Sequence<BulkResultDTO>>() {}.getType();
 
   public TodoAPI(TodoRepository<Task<?>> repository) {
+    this(repository, ListMode.BUFFERED);
+  }
+
+  public TodoAPI(TodoRepository<Task<?>> repository, ListMode listMode) {
     this.repository = checkNonNull(repository);
+    this.listMode = checkNonNull(listMode);
+  }
+
+  /**
+   * Calls of {@code GET /todo} and {@code GET /todo/:id} made, and how many of them shared the
+   * result of another call that was in flight.
+   */
+  public SingleFlight.Stats coalescing() {
+    return reads.stats();
+  }
+
+  /**
+   * {@code GET /todo/_stats}, the {@link #coalescing()} counters and the ratio of shared calls.
+   */
+  public UIO<HttpResponse> stats() {
+    return Task.task(this::coalescing)
+        .map(stats -> Bytes.asBytes(String.format(Locale.ROOT,
+            "{\"reads\":{\"calls\":%d,\"shared\":%d,\"ratio\":%.4f}}", stats.calls(), stats.shared(), stats.ratio())))
+        .fold(fromError(), Responses::ok);
   }
 
   public UIO<HttpResponse> cors() {
@@ -52,110 +121,402 @@ public final class TodoAPI {
   public UIO<HttpResponse> create(HttpRequest request) {
     return getTodoDTO(request)
         .flatMap(liftEither(TodoDTO::toDraft))
-        .flatMap(repository::create)
+        .flatMap(todo -> writes.written(repository.create(todo).fix(TaskOf::toTask),
+            created -> List.of(new TodoOperation.Create(created))))
         .flatMap(this::serializeTodo)
         .fold(fromError(), Responses::created);
   }
 
   public UIO<HttpResponse> update(HttpRequest request) {
+    var ifMatch = tags(request, IF_MATCH);
     return getTodoDTO(request)
         .flatMap(liftEither(TodoDTO::toDomain))
-        .flatMap(repository::update)
-        .flatMap(Task::fromOption)
-        .flatMap(this::serializeTodo)
-        .fold(fromError(), Responses::ok);
+        .flatMap(todo -> conditional(todo.getId(), ifMatch,
+            writes.written(repository.update(todo).fix(TaskOf::toTask), TodoAPI::updated)))
+        .flatMap(this::serializeWithEtag)
+        .fold(fromError(), identity());
   }
 
   public UIO<HttpResponse> modify(HttpRequest request) {
+    var ifMatch = tags(request, IF_MATCH);
     return getIdAndUpdate(request)
-        .flatMap(tuple -> tuple.map1(Id::new).applyTo(repository::modify))
-        .flatMap(Task::fromOption)
-        .flatMap(this::serializeTodo)
+        .flatMap(tuple -> conditional(tuple.get1(), ifMatch,
+            writes.written(tuple.map1(Id::new).applyTo(repository::modify).fix(TaskOf::toTask), TodoAPI::updated)))
+        .flatMap(this::serializeWithEtag)
+        .fold(fromError(), identity());
+  }
+
+  public UIO<HttpResponse> bulk(HttpRequest request) {
+    return getBulkOperations(request)
+        .map(operations -> operations.map(BulkOperationDTO::toDomain))
+        .flatMap(this::runBulk)
+        .flatMap(liftTry(Serializers.<Sequence<BulkResultDTO>>objectToJson(seqOfResults)))
         .fold(fromError(), Responses::ok);
   }
 
+  public UIO<HttpResponse> findAll(HttpRequest request) {
+    if (request.params().contains(QUERY)) {
+      return getSearch(request)
+          .flatMap(search -> search.applyTo(repository::search).fix(TaskOf::toTask))
+          .flatMap(this::serializeTodoList)
+          .fold(fromError(), Responses::ok);
+    }
+    if (request.params().contains(COMPLETED) || request.params().contains(SORT)) {
+      return getQuery(request)
+          .flatMap(query -> repository.findBy(query).fix(TaskOf::toTask))
+          .flatMap(this::serializeTodoList)
+          .fold(fromError(), Responses::ok);
+    }
+    if (!request.params().contains(AFTER) && !request.params().contains(LIMIT)) {
+      return findAll(tags(request, IF_NONE_MATCH));
+    }
+    return getCursor(request)
+        .flatMap(cursor -> cursor.applyTo(repository::findPage).fix(TaskOf::toTask)
+            .flatMap(list -> serializeTodoList(list)
+                .map(Responses::ok)
+                .map(response -> withNextPage(response, list, cursor.get2()))))
+        .fold(fromError(), identity());
+  }
+
   public UIO<HttpResponse> findAll() {
-    return repository.findAll().fix(TaskOf::toTask)
-        .flatMap(this::serializeTodoList)
-        .fold(fromError(), Responses::ok);
+    return findAll(List.of());
+  }
+
+  /**
+   * The etag is taken before reading, so it's never newer than the body. If it's the one the
+   * client already has, nothing is read. Concurrent reads of the list share one scan in every
+   * mode, the streamed one included.
+   */
+  private UIO<HttpResponse> findAll(List<String> ifNoneMatch) {
+    return Task.task(() -> json.versions().etag()).flatMap(etag -> {
+      if (matches(ifNoneMatch, etag)) {
+        return Task.pure(notModified(etag));
+      }
+      var body = switch (listMode) {
+        case BUFFERED -> reads.run(ALL, cachedList());
+        case STREAMING -> reads.run(ALL, streamedList());
+        case DIRECT -> reads.run(ALL, directList());
+      };
+      return body.map(list -> Responses.ok(list).withHeader(ETAG, etag));
+    }).fold(fromError(), identity());
+  }
+
+  private Task<Bytes> streamedList() {
+    return Task.task(json::list).flatMap(cached -> {
+      if (cached.isPresent()) {
+        return Task.pure(cached.getOrElseThrow());
+      }
+      return Task.task(() -> json.versions().version())
+          .flatMap(version -> {
+            var writer = json.writer(version);
+            return repository.forEach(writer::append).fix(TaskOf::toTask).map(_ -> json.list(writer, version));
+          });
+    });
+  }
+
+  private Task<Bytes> directList() {
+    return Task.task(json::list).flatMap(cached -> {
+      if (cached.isPresent()) {
+        return Task.pure(cached.getOrElseThrow());
+      }
+      return Task.task(() -> json.versions().version())
+          .flatMap(version -> {
+            var writer = new TodoListWriter();
+            return repository.forEachRow(writer).fix(TaskOf::toTask).map(_ -> json.list(writer, version));
+          });
+    });
   }
 
   public UIO<HttpResponse> find(HttpRequest request) {
+    var ifNoneMatch = tags(request, IF_NONE_MATCH);
     return getId(request)
-        .map(Id::new)
-        .flatMap(repository::find)
-        .flatMap(Task::fromOption)
-        .flatMap(this::serializeTodo)
-        .fold(fromError(), Responses::ok);
+        .flatMap(id -> Task.task(() -> json.versions().etag(id)).flatMap(etag -> {
+          var body = reads.run(id, cachedTodo(new Id(id)));
+          // a todo that doesn't exist has no representation to match
+          if (matches(ifNoneMatch, etag)) {
+            return body.map(_ -> notModified(etag));
+          }
+          return body.map(json -> Responses.ok(json).withHeader(ETAG, etag));
+        }))
+        .fold(fromError(), identity());
+  }
+
+  /**
+   * Server-sent events with the changes after the last event id, or the {@code since}
+   * parameter, or only the new ones if none is given. The response is sent when there are
+   * changes or after a timeout, at most the {@code timeout} parameter in seconds, and the
+   * client reconnects with the id of the last event it got, or the cursor it was given if
+   * none, so it never misses one. Waiting clients only hold a parked virtual thread.
+   */
+  public UIO<HttpResponse> changes(HttpRequest request) {
+    return Task.task(() -> Tuple2.of(getLastEventId(request), getTimeout(request)))
+        .flatMap(tuple -> Task.task(() -> changes.poll(tuple.get1(), tuple.get2()))
+            .map(events -> {
+              if (events.isEmpty()) {
+                return status(HttpStatus.SERVICE_UNAVAILABLE).withHeader("Retry-After", "1");
+              }
+              return Responses.ok(ChangeFeed.encode(tuple.get1(), events.getOrElseThrow(), CHANGES_RETRY))
+                  .withHeader(CONTENT_TYPE, EVENT_STREAM)
+                  .withHeader("Cache-Control", "no-cache");
+            }))
+        .fold(fromError(), identity());
   }
 
   public UIO<HttpResponse> delete(HttpRequest request) {
+    var ifMatch = tags(request, IF_MATCH);
     return getId(request)
-        .map(Id::new)
-        .flatMap(repository::delete)
+        .flatMap(id -> conditional(id, ifMatch,
+            writes.written(repository.delete(new Id(id)).fix(TaskOf::toTask),
+                removed -> removed ? List.of(new TodoOperation.Delete(new Id(id))) : List.of())))
         .fold(fromError(), cons(Responses.ok()));
   }
 
   public UIO<HttpResponse> deleteAll() {
-     return repository.deleteAll().fix(TaskOf::toTask)
+     return writes.serializedAll(writes.writtenAll(repository.deleteAll().fix(TaskOf::toTask)))
         .fold(fromError(), cons(Responses.ok()));
   }
 
   private Task<TodoDTO> getTodoDTO(HttpRequest request) {
+    return Task.task(request::body).flatMap(liftTry(TodoJson::parse));
+  }
+
+  private Task<ImmutableList<BulkOperationDTO>> getBulkOperations(HttpRequest request) {
     return Task.task(request::body)
-        .flatMap(jsonToObject(TodoDTO.class).andThen(Task::fromTry))
+        .flatMap(Deserializers.<ImmutableList<BulkOperationDTO>>jsonToObject(seqOfOperations).andThen(Task::fromTry))
         .flatMap(Task::fromOption);
   }
 
+  /**
+   * Invalid operations are answered without reaching the repository, the valid ones are sent
+   * together in one call, and the results are merged back in the original order.
+   */
+  private Task<Sequence<BulkResultDTO>> runBulk(ImmutableList<Either<Throwable, TodoOperation>> operations) {
+    var valid = operations.filter(Either::isRight).map(Either::getRight);
+    var ids = valid.stream().flatMap(operation -> switch (operation) {
+      case TodoOperation.Create _ -> Stream.<Integer>empty();
+      case TodoOperation.Update(var todo) -> Stream.of(todo.getId());
+      case TodoOperation.Delete(var id) -> Stream.of(id.value());
+    }).toList();
+    return writes.serialized(ids, writes.written(repository.bulk(valid).fix(TaskOf::toTask), TodoAPI::applied)).map(results -> {
+      var iterator = results.iterator();
+      var list = new ArrayList<BulkResultDTO>(operations.size());
+      for (var operation : operations) {
+        list.add(operation.fold(BulkResultDTO::fromError, _ -> BulkResultDTO.fromDomain(iterator.next())));
+      }
+      return ImmutableList.from(list);
+    });
+  }
+
   private Task<Integer> getId(HttpRequest request) {
     return Task.pure(request).map(pathParam(0))
         .map(Integer::parseInt);
   }
 
-  private Task<Option<String>> getTitle(HttpRequest request) {
-    return Task.pure(request).map(Extractors.<String>extract("$.title").liftOption());
+  private long getLastEventId(HttpRequest request) {
+    for (var value : request.headers().get(LAST_EVENT_ID)) {
+      return cursor(Long.parseLong(value.strip()));
+    }
+    return request.params().get(SINCE).map(Long::parseLong).map(TodoAPI::cursor).getOrElse(changes.last());
+  }
+
+  private Duration getTimeout(HttpRequest request) {
+    var timeout = request.params().get(TIMEOUT).map(Long::parseLong).map(Duration::ofSeconds).getOrElse(CHANGES_TIMEOUT);
+    if (timeout.isNegative() || timeout.compareTo(CHANGES_TIMEOUT) > 0) {
+      throw new IllegalArgumentException("timeout must be between 0 and " + CHANGES_TIMEOUT.toSeconds());
+    }
+    return timeout;
+  }
+
+  private static long cursor(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("last event id cannot be negative");
+    }
+    return value;
   }
 
-  private Task<Option<Integer>> getOrder(HttpRequest request) {
-    return Task.pure(request).map(Extractors.<Integer>extract("$.order").liftOption());
+  private Task<Tuple2<Option<Id>, Integer>> getCursor(HttpRequest request) {
+    return Task.task(() -> Tuple2.of(
+        request.params().get(AFTER).map(Integer::parseInt).map(Id::new),
+        request.params().get(LIMIT).map(Integer::parseInt).getOrElse(DEFAULT_LIMIT)))
+      .flatMap(tuple -> tuple.get2() > 0 && tuple.get2() <= MAX_LIMIT
+          ? Task.pure(tuple)
+          : Task.raiseError(new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT)));
   }
 
-  private Task<Option<Boolean>> getCompleted(HttpRequest request) {
-    return Task.pure(request).map(Extractors.<Boolean>extract("$.completed").liftOption());
+  private Task<Tuple2<String, Integer>> getSearch(HttpRequest request) {
+    return Task.task(() -> Tuple2.of(
+        request.params().get(QUERY).getOrElse(""),
+        request.params().get(LIMIT).map(Integer::parseInt).getOrElse(DEFAULT_LIMIT)))
+      .flatMap(tuple -> tuple.get2() > 0 && tuple.get2() <= MAX_LIMIT
+          ? Task.pure(tuple)
+          : Task.raiseError(new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT)));
+  }
+
+  private Task<TodoQuery> getQuery(HttpRequest request) {
+    return Task.task(() -> new TodoQuery(
+        request.params().get(COMPLETED).map(TodoAPI::parseBoolean),
+        request.params().get(SORT).map(TodoAPI::parseSort).getOrElse(TodoQuery.Sort.ID)));
+  }
+
+  private static Boolean parseBoolean(String value) {
+    return switch (value) {
+      case "true" -> true;
+      case "false" -> false;
+      default -> throw new IllegalArgumentException("completed must be true or false");
+    };
+  }
+
+  private static TodoQuery.Sort parseSort(String value) {
+    return switch (value) {
+      case "id" -> TodoQuery.Sort.ID;
+      case "order" -> TodoQuery.Sort.ORDER;
+      default -> throw new IllegalArgumentException("sort must be id or order");
+    };
+  }
+
+  private HttpResponse withNextPage(HttpResponse response, Sequence<Todo> list, int limit) {
+    if (list.size() < limit) {
+      return response;
+    }
+    var last = list.stream().mapToInt(Todo::getId).max().orElseThrow();
+    return response.withHeader("Link", "<%s?%s=%d&%s=%d>; rel=\"next\"".formatted(
+        TodoDTO.BASE_URL, AFTER, last, LIMIT, limit));
   }
 
   private Task<Tuple2<Integer, Operator1<Todo>>> getIdAndUpdate(HttpRequest request) {
-    return getId(request).zip(getUpdate(request));
+    return getId(request).zip(getPatch(request).map(TodoPatch::toOperator));
+  }
+
+  private Task<TodoPatch> getPatch(HttpRequest request) {
+    return Task.task(request::body).flatMap(liftTry(TodoPatch::parse));
+  }
+
+  /**
+   * Todo, or whole list, encoded as json. They are read from the repository and encoded
+   * only if something changed since the last time.
+   */
+  private Task<Bytes> cachedTodo(Id id) {
+    return Task.task(() -> json.todo(id.value())).flatMap(cached -> {
+      if (cached.isPresent()) {
+        return Task.pure(cached.getOrElseThrow());
+      }
+      return Task.task(() -> json.versions().version())
+          .flatMap(version -> repository.find(id).fix(TaskOf::toTask)
+              .flatMap(Task::fromOption)
+              .map(todo -> json.todo(todo, version)));
+    });
+  }
+
+  private Task<Bytes> cachedList() {
+    return Task.task(json::list).flatMap(cached -> {
+      if (cached.isPresent()) {
+        return Task.pure(cached.getOrElseThrow());
+      }
+      return Task.task(() -> json.versions().version())
+          .flatMap(version -> repository.findAll().fix(TaskOf::toTask).map(list -> json.list(list, version)));
+    });
+  }
+
+  /**
+   * Writes are serialized by id, bulk operations by all the ids they write, and delete all
+   * with all of them. So the etag of the if-match header is compared with the current one,
+   * and the write is done, without other writes of the same todo in between.
+   */
+  private <T> Task<Tuple2<T, String>> conditional(int id, List<String> ifMatch, Task<T> write) {
+    return writes.serialized(List.of(id), precondition(id, ifMatch)
+        .flatMap(_ -> write)
+        .map(result -> Tuple2.of(result, json.versions().etag(id))));
   }
 
-  private Task<Operator1<Todo>> getUpdate(HttpRequest request) {
-    Task<Tuple3<Operator1<Todo>, Operator1<Todo>, Operator1<Todo>>> map3 = Instances.<Task<?>>applicative()
-        .mapN(
-            getTitle(request).map(toOperation(Todo::withTitle)),
-            getOrder(request).map(toOperation(Todo::withOrder)),
-            getCompleted(request).map(toOperation(Todo::withCompleted)))
-        .apply(Tuple3::of).fix(TaskOf::toTask);
-    return map3.map(tuple -> tuple.applyTo((op1, op2, op3) -> op1.andThen(op2).andThen(op3)::apply));
+  /**
+   * A todo that doesn't exist matches no etag, not even {@code *}.
+   */
+  private Task<Unit> precondition(int id, List<String> ifMatch) {
+    if (ifMatch.isEmpty()) {
+      return Task.pure(Unit.unit());
+    }
+    return Task.task(() -> json.versions().etag(id)).flatMap(etag -> {
+      if (!matches(ifMatch, etag)) {
+        return Task.<Unit>raiseError(new PreconditionFailedException());
+      }
+      return repository.find(new Id(id)).fix(TaskOf::toTask)
+          .flatMap(found -> found.isPresent()
+              ? Task.pure(Unit.unit()) : Task.<Unit>raiseError(new PreconditionFailedException()));
+    });
   }
 
-  private <T> Function1<Option<T>, Operator1<Todo>> toOperation(Function2<Todo, T, Todo> function) {
-    return value -> value.fold(Producer.cons(todo -> todo), v -> todo -> function.apply(todo, v));
+  private static List<String> tags(HttpRequest request, String header) {
+    var tags = new ArrayList<String>();
+    for (var value : request.headers().get(header)) {
+      for (var tag : value.split(",")) {
+        tags.add(tag.strip());
+      }
+    }
+    return tags;
+  }
+
+  private static boolean matches(List<String> tags, String etag) {
+    return tags.contains("*") || tags.contains(etag);
+  }
+
+  private static HttpResponse notModified(String etag) {
+    return status(HttpStatus.NOT_MODIFIED).withHeader(ETAG, etag);
+  }
+
+  private static HttpResponse status(HttpStatus status) {
+    return new HttpResponse(status, Bytes.empty(), HttpHeaders.empty());
+  }
+
+  private static List<TodoOperation> updated(Option<Todo> result) {
+    return result.isPresent() ? List.of(new TodoOperation.Update(result.getOrElseThrow())) : List.of();
+  }
+
+  private static List<TodoOperation> applied(Sequence<Option<TodoOperation>> results) {
+    var applied = new ArrayList<TodoOperation>();
+    for (var result : results) {
+      if (result.isPresent()) {
+        applied.add(result.getOrElseThrow());
+      }
+    }
+    return applied;
   }
 
   private Function1<Throwable, HttpResponse> fromError() {
     return error -> switch (error) {
+      case PreconditionFailedException _ -> status(HttpStatus.PRECONDITION_FAILED);
+      case ConcurrentModificationException _ -> status(HttpStatus.CONFLICT);
       case IllegalArgumentException e -> Responses.badRequest(e.getMessage());
       default -> Responses.error(error);
     };
   }
 
   private Task<Bytes> serializeTodoList(Sequence<Todo> todoList) {
-    return Task.task(() -> todoList.map(TodoDTO::fromDomain))
-        .flatMap(liftTry(Serializers.<Sequence<TodoDTO>>objectToJson(seqOfTodos)));
+    return Task.task(() -> {
+      var writer = new TodoListWriter();
+      todoList.forEach(writer::append);
+      return writer.close();
+    });
+  }
+
+  /**
+   * The etag of a todo just written is taken before anybody else can write it again.
+   */
+  private Task<HttpResponse> serializeWithEtag(Tuple2<Option<Todo>, String> updated) {
+    return Task.fromOption(updated.get1())
+        .flatMap(this::serializeTodo)
+        .map(body -> Responses.ok(body).withHeader(ETAG, updated.get2()));
   }
 
   private Task<Bytes> serializeTodo(Todo todo) {
-    return Task.task(() -> fromDomain(todo))
-        .flatMap(liftTry(Serializers.<TodoDTO>objectToJson()));
+    return Task.task(() -> TodoJson.encode(todo));
+  }
+
+  private static final class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    PreconditionFailedException() {
+      super("etag does not match", null, false, false);
+    }
   }
 }
@@ -9,15 +9,19 @@ import static com.github.tonivade.purefun.type.Validation.requireNonEmpty;
 import static com.github.tonivade.purefun.type.Validation.requireNonNull;
 import static com.github.tonivade.purefun.type.Validation.requirePositive;
 import static java.util.Objects.nonNull;
+
+import org.jspecify.annotations.Nullable;
+
 import com.github.tonivade.purefun.type.Either;
 import com.github.tonivade.purefun.type.Validation.Result;
 import com.github.tonivade.purejson.Json;
 import com.github.tonivade.todo.domain.Todo;
 
 @Json
-public record TodoDTO(Integer id, String title, Integer order, Boolean completed, String url) {
+public record TodoDTO(
+    @Nullable Integer id, @Nullable String title, @Nullable Integer order, @Nullable Boolean completed, @Nullable String url) {
 
-  private static final String BASE_URL = "https://tonivade.es/todo/";
+  static final String BASE_URL = "https://tonivade.es/todo/";
 
   public Either<Throwable, Todo> toDomain() {
     return mapN(
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.type.Try;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Codec of the json of a {@link TodoDTO}. It's written field by field, the same document that
+ * the generic serializer writes for it but without building the dto, and it's read with the
+ * {@link JsonReader}, without a tree or a string of the whole body. Unknown fields are
+ * skipped, as the generic deserializer does.
+ */
+final class TodoJson {
+
+  private static final byte[] ID = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] TITLE = ",\"title\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] ORDER = ",\"order\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] COMPLETED = ",\"completed\":".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] URL = ",\"url\":\"".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] BASE_URL = TodoDTO.BASE_URL.getBytes(StandardCharsets.UTF_8);
+
+  private static final int CAPACITY = 128;
+
+  private TodoJson() {}
+
+  static Try<TodoDTO> parse(Bytes body) {
+    return Try.of(() -> {
+      var reader = new JsonReader(body.toArray());
+      Integer id = null;
+      String title = null;
+      Integer order = null;
+      Boolean completed = null;
+      String url = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "id" -> id = reader.nextInt();
+          case "title" -> title = reader.nextString();
+          case "order" -> order = reader.nextInt();
+          case "completed" -> completed = reader.nextBoolean();
+          case "url" -> url = reader.nextString();
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return new TodoDTO(id, title, order, completed, url);
+    });
+  }
+
+  static Bytes encode(Todo todo) {
+    var writer = new JsonWriter(CAPACITY);
+    write(writer, todo.getId(), todo.getTitle(), todo.getOrder(), todo.isCompleted());
+    return writer.toBytes();
+  }
+
+  static void write(JsonWriter writer, int id, String title, @Nullable Integer order, boolean completed) {
+    writer.raw(ID).value(id)
+        .raw(TITLE).value(title)
+        .raw(ORDER);
+    if (order != null) {
+      writer.value(order.intValue());
+    } else {
+      writer.nullValue();
+    }
+    writer.raw(COMPLETED).value(completed)
+        .raw(URL).raw(BASE_URL).value(id).raw('"')
+        .raw('}');
+  }
+}
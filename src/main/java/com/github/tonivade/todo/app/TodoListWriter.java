@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoSink;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Writes a json array incrementally, one todo at a time, so a list response never needs
+ * the whole sequence of todos or dtos in memory, only the encoded output. Each todo is
+ * encoded by the given function, that may return an already encoded fragment, or, when the
+ * fields come straight from the repository as a {@link TodoSink}, directly into the output.
+ */
+final class TodoListWriter implements TodoSink {
+
+  private static final int INITIAL_CAPACITY = 4096;
+
+  private final Function1<Todo, Bytes> encoder;
+  private final JsonWriter writer = new JsonWriter(INITIAL_CAPACITY);
+
+  private boolean first = true;
+
+  TodoListWriter() {
+    this(encoder());
+  }
+
+  TodoListWriter(Function1<Todo, Bytes> encoder) {
+    this.encoder = checkNonNull(encoder);
+    writer.raw('[');
+  }
+
+  static Function1<Todo, Bytes> encoder() {
+    return TodoJson::encode;
+  }
+
+  void append(Todo todo) {
+    separator();
+    writer.raw(encoder.apply(todo).toArray());
+  }
+
+  @Override
+  public void accept(int id, String title, @Nullable Integer order, boolean completed) {
+    separator();
+    TodoJson.write(writer, id, title, order, completed);
+  }
+
+  Bytes close() {
+    writer.raw(']');
+    return writer.toBytes();
+  }
+
+  private void separator() {
+    if (!first) {
+      writer.raw(',');
+    }
+    first = false;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+
+import com.github.tonivade.purefun.core.Operator1;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.type.Try;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * Partial update of a todo, parsed once from the body of a PATCH request. Null values are
+ * treated as absent and unknown fields are rejected.
+ */
+public record TodoPatch(Option<String> title, Option<Integer> order, Option<Boolean> completed) {
+
+  public TodoPatch {
+    checkNonNull(title);
+    checkNonNull(order);
+    checkNonNull(completed);
+  }
+
+  public boolean isEmpty() {
+    return title.isEmpty() && order.isEmpty() && completed.isEmpty();
+  }
+
+  public Operator1<Todo> toOperator() {
+    return todo -> {
+      var result = todo;
+      if (title.isPresent()) {
+        result = result.withTitle(title.getOrElseThrow());
+      }
+      if (order.isPresent()) {
+        result = result.withOrder(order.getOrElseThrow());
+      }
+      if (completed.isPresent()) {
+        result = result.withCompleted(completed.getOrElseThrow());
+      }
+      return result;
+    };
+  }
+
+  public static Try<TodoPatch> parse(Bytes body) {
+    return Try.of(() -> {
+      var reader = new JsonReader(body.toArray());
+      Option<String> title = Option.none();
+      Option<Integer> order = Option.none();
+      Option<Boolean> completed = Option.none();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        var name = reader.nextName();
+        switch (name) {
+          case "title" -> title = Option.of(reader.nextString());
+          case "order" -> order = Option.of(reader.nextInt());
+          case "completed" -> completed = Option.of(reader.nextBoolean());
+          default -> throw new IllegalArgumentException("unknown field " + name);
+        }
+      }
+      reader.endObject();
+      var patch = new TodoPatch(title, order, completed);
+      if (patch.isEmpty()) {
+        throw new IllegalArgumentException("nothing to update");
+      }
+      return patch;
+    });
+  }
+}
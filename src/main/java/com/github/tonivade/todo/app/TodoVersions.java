@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the list of todos, incremented by every write, and stamp of every todo, the
+ * version of the last write that changed it. Todos not written since the start have the
+ * version of the last write that changed all of them. Versions start again from zero on
+ * every start, so the etags include the time of the start too.
+ *
+ * <p>Only the todos written after the last write of all of them have a stamp, and deleted
+ * todos don't, so there are never more stamps than todos.</p>
+ */
+final class TodoVersions {
+
+  private final long epoch = System.currentTimeMillis();
+
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong floor = new AtomicLong();
+  private final AtomicLong deleted = new AtomicLong();
+  private final Map<Integer, Long> stamps = new ConcurrentHashMap<>();
+
+  long version() {
+    return version.get();
+  }
+
+  long stamp(int id) {
+    return Math.max(stamps.getOrDefault(id, 0L), floor.get());
+  }
+
+  String etag(int id) {
+    return etag(stamp(id));
+  }
+
+  String etag() {
+    return etag(version());
+  }
+
+  void written(int id) {
+    stamps.merge(id, version.incrementAndGet(), Math::max);
+  }
+
+  /**
+   * Version of the last delete. A todo read before it may be a deleted one, since its stamp
+   * is gone.
+   */
+  long deleted() {
+    return deleted.get();
+  }
+
+  void deleted(int id) {
+    long current = version.incrementAndGet();
+    deleted.accumulateAndGet(current, Math::max);
+    // a todo created again with the same id after the delete keeps its stamp
+    stamps.computeIfPresent(id, (_, stamp) -> stamp > current ? stamp : null);
+  }
+
+  void writtenAll() {
+    long current = floor.accumulateAndGet(version.incrementAndGet(), Math::max);
+    stamps.values().removeIf(stamp -> stamp <= current);
+  }
+
+  private String etag(long version) {
+    return "\"%x-%x\"".formatted(epoch, version);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.zeromock.api.Bytes;
+
+/**
+ * What happens around the writes of the api. Writes of the same todo are serialized by
+ * striped locks, and when a write finishes the versions and the json cached are updated,
+ * the reads in flight are not shared anymore, and the changes are published.
+ */
+final class TodoWrites {
+
+  private final SingleFlight<?, Bytes> reads;
+  private final JsonCache json;
+  private final ChangeFeed changes;
+  private final ReentrantLock[] stripes;
+
+  TodoWrites(SingleFlight<?, Bytes> reads, JsonCache json, ChangeFeed changes, int stripes) {
+    checkPositive(stripes, "stripes must be a positive value");
+    this.reads = checkNonNull(reads);
+    this.json = checkNonNull(json);
+    this.changes = checkNonNull(changes);
+    this.stripes = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * The versions of the todos changed are incremented. If the write fails, it is not known
+   * what was changed, so everything is.
+   */
+  <T> Task<T> written(Task<T> write, Function1<T, List<TodoOperation>> applied) {
+    return Task.task(write::safeRunSync)
+        .map(result -> {
+          // forget the reads in flight first, so who sees the new versions never joins them
+          reads.invalidate();
+          if (result.isSuccess()) {
+            for (var operation : applied.apply(result.get())) {
+              switch (operation) {
+                case TodoOperation.Create(var todo) -> json.written(todo.getId());
+                case TodoOperation.Update(var todo) -> json.written(todo.getId());
+                case TodoOperation.Delete(var id) -> json.deleted(id.value());
+              }
+              changes.publish(operation);
+            }
+          } else {
+            json.writtenAll();
+            changes.publishResync();
+          }
+          return result;
+        })
+        .flatMap(Task::fromTry);
+  }
+
+  <T> Task<T> writtenAll(Task<T> write) {
+    return Task.task(write::safeRunSync)
+        .map(result -> {
+          reads.invalidate();
+          json.writtenAll();
+          if (result.isSuccess()) {
+            changes.publishClear();
+          } else {
+            changes.publishResync();
+          }
+          return result;
+        })
+        .flatMap(Task::fromTry);
+  }
+
+  <T> Task<T> serialized(Collection<Integer> ids, Task<T> write) {
+    var indexes = new TreeSet<Integer>();
+    for (var id : ids) {
+      indexes.add(Math.floorMod(id, stripes.length));
+    }
+    return locked(indexes, write);
+  }
+
+  <T> Task<T> serializedAll(Task<T> write) {
+    var indexes = new TreeSet<Integer>();
+    for (int i = 0; i < stripes.length; i++) {
+      indexes.add(i);
+    }
+    return locked(indexes, write);
+  }
+
+  /**
+   * Stripes are always taken in ascending order, so writes of many ids don't deadlock.
+   */
+  private <T> Task<T> locked(SortedSet<Integer> indexes, Task<T> write) {
+    return Task.task(() -> {
+      var locked = new ArrayList<ReentrantLock>(indexes.size());
+      try {
+        for (var index : indexes) {
+          stripes[index].lock();
+          locked.add(stripes[index]);
+        }
+        return write.safeRunSync();
+      } finally {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+          locked.get(i).unlock();
+        }
+      }
+    }).flatMap(Task::fromTry);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+
+/**
+ * Inverted index of the words of the titles. Every word of the query must be found in the
+ * title, as a whole word or as the prefix of a word, so it works for search as you type.
+ * Results are ranked by the number of whole words found, and by id. The index only keeps the
+ * ids of the todos with each word, in sorted arrays, so the todos have to be read from the
+ * repository, and who changes a title has to tell the title it had before.
+ */
+public final class TitleIndex {
+
+  private static final int EXACT = 2;
+  private static final int PREFIX = 1;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final TreeMap<String, Postings> words = new TreeMap<>();
+
+  /**
+   * Best matches of the query within the todos given, for the repositories without an index.
+   */
+  public static Sequence<Todo> search(Iterable<Todo> todos, String query, int limit) {
+    var index = new TitleIndex();
+    var byId = new HashMap<Integer, Todo>();
+    for (var todo : todos) {
+      byId.put(todo.getId(), todo);
+      index.put(todo.getId(), todo.getTitle());
+    }
+    var result = new ArrayList<Todo>();
+    for (int id : index.search(query, limit)) {
+      var todo = byId.get(id);
+      if (todo != null) {
+        result.add(todo);
+      }
+    }
+    return ImmutableList.from(result);
+  }
+
+  public void put(int id, String title) {
+    checkNonNull(title);
+    lock.writeLock().lock();
+    try {
+      for (var word : words(title)) {
+        words.computeIfAbsent(word, _ -> new Postings()).add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void replace(int id, String previous, String title) {
+    checkNonNull(previous);
+    checkNonNull(title);
+    if (previous.equals(title)) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      unindex(id, previous);
+      for (var word : words(title)) {
+        words.computeIfAbsent(word, _ -> new Postings()).add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(int id, String title) {
+    checkNonNull(title);
+    lock.writeLock().lock();
+    try {
+      unindex(id, title);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      words.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Ids of the best matches, best first.
+   */
+  public int[] search(String query, int limit) {
+    checkNonNull(query);
+    checkPositive(limit, "limit must be a positive value");
+    var terms = tokenize(query);
+    if (terms.isEmpty()) {
+      return new int[0];
+    }
+    lock.readLock().lock();
+    try {
+      var scores = matches(terms.getFirst());
+      for (var term : terms.subList(1, terms.size())) {
+        var previous = scores;
+        scores = matches(term);
+        scores.keySet().retainAll(previous.keySet());
+        scores.replaceAll((id, score) -> score + previous.getOrDefault(id, 0));
+      }
+      return scores.entrySet().stream()
+          .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+          .limit(limit)
+          .mapToInt(Map.Entry::getKey)
+          .toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Map<Integer, Integer> matches(String term) {
+    var matches = new HashMap<Integer, Integer>();
+    for (var entry : words.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+      int score = entry.getKey().equals(term) ? EXACT : PREFIX;
+      var postings = entry.getValue();
+      for (int i = 0; i < postings.size; i++) {
+        matches.merge(postings.ids[i], score, Math::max);
+      }
+    }
+    return matches;
+  }
+
+  private void unindex(int id, String title) {
+    for (var word : words(title)) {
+      var postings = words.get(word);
+      if (postings != null && postings.remove(id) && postings.size == 0) {
+        words.remove(word);
+      }
+    }
+  }
+
+  private static Iterable<String> words(String title) {
+    return new LinkedHashSet<>(tokenize(title));
+  }
+
+  public static List<String> tokenize(String text) {
+    var tokens = new ArrayList<String>();
+    var lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i < lower.length(); i++) {
+      if (Character.isLetterOrDigit(lower.charAt(i))) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        tokens.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      tokens.add(lower.substring(start));
+    }
+    return tokens;
+  }
+
+  /**
+   * Sorted ids of the todos with a word. Ids are created in ascending order, so most of the
+   * adds go at the end of the array.
+   */
+  private static final class Postings {
+
+    private int[] ids = new int[2];
+    private int size;
+
+    void add(int id) {
+      int index = Arrays.binarySearch(ids, 0, size, id);
+      if (index >= 0) {
+        return;
+      }
+      int insertion = -index - 1;
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size << 1);
+      }
+      System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+      ids[insertion] = id;
+      size++;
+    }
+
+    boolean remove(int id) {
+      int index = Arrays.binarySearch(ids, 0, size, id);
+      if (index < 0) {
+        return false;
+      }
+      System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+      size--;
+      return true;
+    }
+  }
+}
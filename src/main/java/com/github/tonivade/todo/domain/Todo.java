@@ -30,7 +30,7 @@ public record Todo(Option<Id> id, Title title, Option<Order> order, State state)
     return new Todo(Option.none(), new Title(title), Option.some(new Order(order)), State.DRAFT);
   }
 
-  public static Todo create(@Nullable Integer id, String title, Integer order, Boolean completed) {
+  public static Todo create(@Nullable Integer id, String title, @Nullable Integer order, Boolean completed) {
     return new Todo(
         Option.of(id).map(Id::new),
         new Title(title),
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+
+public sealed interface TodoOperation {
+
+  record Create(Todo todo) implements TodoOperation {
+    public Create {
+      checkNonNull(todo, "todo cannot be null");
+    }
+  }
+
+  record Update(Todo todo) implements TodoOperation {
+    public Update {
+      checkNonNull(todo, "todo cannot be null");
+    }
+  }
+
+  record Delete(Id id) implements TodoOperation {
+    public Delete {
+      checkNonNull(id, "id cannot be null");
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.util.Comparator;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.type.Option;
+
+/**
+ * Filter by state and sort of a list of todos. Todos are sorted by id, or by order with the
+ * todos without order at the end, and by id when the order is the same.
+ */
+public record TodoQuery(Option<Boolean> completed, Sort sort) {
+
+  public enum Sort { ID, ORDER }
+
+  public static final Comparator<Todo> BY_ID = Comparator.comparing(Todo::getId);
+  public static final Comparator<Todo> BY_ORDER =
+      Comparator.comparing(Todo::getOrder, Comparator.nullsLast(Comparator.<Integer>naturalOrder())).thenComparing(BY_ID);
+
+  public TodoQuery {
+    checkNonNull(completed);
+    checkNonNull(sort);
+  }
+
+  public boolean matches(Todo todo) {
+    return completed.map(value -> value == todo.isCompleted()).getOrElse(true);
+  }
+
+  public Comparator<Todo> comparator() {
+    return switch (sort) {
+      case ID -> BY_ID;
+      case ORDER -> BY_ORDER;
+    };
+  }
+
+  public Sequence<Todo> apply(Sequence<Todo> todos) {
+    return ImmutableList.from(todos.stream().filter(this::matches).sorted(comparator()).toList());
+  }
+}
@@ -5,8 +5,10 @@
 package com.github.tonivade.todo.domain;
 
 import com.github.tonivade.purefun.Kind;
+import com.github.tonivade.purefun.core.Consumer1;
 import com.github.tonivade.purefun.core.Operator1;
 import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.Sequence;
 import com.github.tonivade.purefun.transformer.OptionT;
 import com.github.tonivade.purefun.type.Option;
@@ -17,15 +19,78 @@ public interface TodoRepository<F extends Kind<F, ?>> {
   Monad<F> monad();
 
   Kind<F, Todo> create(Todo todo);
+
+  /**
+   * Every todo, in no specific order, the same as {@link #forEach(Consumer1)}. Who needs an
+   * order asks for it with {@link #findBy(TodoQuery)} or {@link #findPage(Option, int)}.
+   */
   Kind<F, Sequence<Todo>> findAll();
+  Kind<F, Sequence<Todo>> findPage(Option<Id> after, int limit);
+
+  /**
+   * Every todo, in no specific order.
+   */
+  Kind<F, Unit> forEach(Consumer1<Todo> consumer);
   Kind<F, Option<Todo>> find(Id id);
   Kind<F, Option<Todo>> update(Todo todo);
   Kind<F, Unit> deleteAll();
-  Kind<F, Unit> delete(Id id);
+
+  /**
+   * True if there was a todo with the id to delete.
+   */
+  Kind<F, Boolean> delete(Id id);
+
+  /**
+   * Fields of every todo, in no specific order, for the callers that only need to encode them.
+   * By default they come from {@link #forEach(Consumer1)}, repositories that can read them
+   * without building the todos should do it.
+   */
+  default Kind<F, Unit> forEachRow(TodoSink sink) {
+    return forEach(todo -> sink.accept(todo.getId(), todo.getTitle(), todo.getOrder(), todo.isCompleted()));
+  }
+
+  /**
+   * Todos that match the query, in its order. By default everything is read and filtered
+   * in memory, repositories with indexes should do better.
+   */
+  default Kind<F, Sequence<Todo>> findBy(TodoQuery query) {
+    return monad().map(findAll(), query::apply);
+  }
+
+  /**
+   * Todos with all the words of the query in the title, best matches first. By default an
+   * index is built from all the todos for every search.
+   */
+  default Kind<F, Sequence<Todo>> search(String query, int limit) {
+    return monad().map(findAll(), all -> TitleIndex.search(all, query, limit));
+  }
 
   default Kind<F, Option<Todo>> modify(Id id, Operator1<Todo> update) {
     return OptionT.of(monad(), find(id))
       .map(update)
       .flatMapF(this::update);
   }
+
+  /**
+   * Applies the operations in order and returns, for each one, the applied operation, or
+   * none if the todo was not found.
+   */
+  default Kind<F, Sequence<Option<TodoOperation>>> bulk(Sequence<TodoOperation> operations) {
+    Kind<F, Sequence<Option<TodoOperation>>> result = monad().pure(ImmutableList.empty());
+    for (var operation : operations) {
+      result = monad().flatMap(result, list -> monad().map(apply(operation), list::append));
+    }
+    return result;
+  }
+
+  private Kind<F, Option<TodoOperation>> apply(TodoOperation operation) {
+    return switch (operation) {
+      case TodoOperation.Create(var todo) ->
+        monad().map(create(todo), created -> Option.<TodoOperation>some(new TodoOperation.Create(created)));
+      case TodoOperation.Update(var todo) ->
+        monad().map(update(todo), option -> option.<TodoOperation>map(TodoOperation.Update::new));
+      case TodoOperation.Delete(var id) ->
+        monad().map(delete(id), removed -> removed ? Option.some(operation) : Option.<TodoOperation>none());
+    };
+  }
 }
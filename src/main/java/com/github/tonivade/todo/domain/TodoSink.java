@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Receives the fields of a todo already stored, so they are trusted and no {@link Todo} needs
+ * to be built and validated for each one.
+ */
+@FunctionalInterface
+public interface TodoSink {
+
+  void accept(int id, String title, @Nullable Integer order, boolean completed);
+}
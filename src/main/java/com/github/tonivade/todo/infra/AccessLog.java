@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.tonivade.purefun.type.Either;
+import com.github.tonivade.zeromock.api.HttpMethod;
+import com.github.tonivade.zeromock.api.PostFilter;
+import com.github.tonivade.zeromock.api.PreFilter;
+
+/**
+ * Access log that keeps request and response events out of the request thread. Only the
+ * fields logged are taken from the requests and responses, they are published to a bounded
+ * {@link RingBuffer} and a background writer drains them in batches to the configured
+ * {@link Appender}. The writer sleeps while there is nothing to write, and the first event
+ * published wakes it up. The entries dropped are reported as a warning of the application log.
+ */
+public final class AccessLog implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+
+  private static final long FULL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  public enum Policy { DROP, BLOCK }
+
+  public sealed interface Appender extends AutoCloseable {
+
+    void append(List<String> lines);
+
+    @Override
+    default void close() {}
+
+    static Appender logback(String name) {
+      return new Logback(LoggerFactory.getLogger(name));
+    }
+
+    static Appender file(Path path) {
+      try {
+        return new File(Files.newBufferedWriter(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private record Logback(Logger logger) implements Appender {
+
+    @Override
+    public void append(List<String> lines) {
+      for (var line : lines) {
+        logger.info(line);
+      }
+    }
+  }
+
+  private record File(BufferedWriter writer) implements Appender {
+
+    @Override
+    public void append(List<String> lines) {
+      try {
+        for (var line : lines) {
+          writer.write(line);
+          writer.newLine();
+        }
+        writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private sealed interface Event {
+
+    String format();
+  }
+
+  private record Request(long timestamp, HttpMethod method, String path) implements Event {
+
+    @Override
+    public String format() {
+      return Instant.ofEpochMilli(timestamp) + " --> " + method + " " + path;
+    }
+  }
+
+  private record Response(long timestamp, int status, int length) implements Event {
+
+    @Override
+    public String format() {
+      return Instant.ofEpochMilli(timestamp) + " <-- " + status + " " + length;
+    }
+  }
+
+  private final RingBuffer<Event> buffer;
+  private final Appender appender;
+  private final Policy policy;
+  private final int batchSize;
+  private final LongAdder dropped = new LongAdder();
+  private final Thread writer;
+  private volatile boolean running = true;
+  private volatile boolean idle;
+
+  public AccessLog(Appender appender, Policy policy, int bufferSize, int batchSize) {
+    this.appender = checkNonNull(appender);
+    this.policy = checkNonNull(policy);
+    checkPositive(batchSize, "batch size must be a positive value");
+    this.batchSize = batchSize;
+    this.buffer = new RingBuffer<>(bufferSize);
+    this.writer = Thread.ofPlatform().name("access-log").daemon().start(this::drain);
+  }
+
+  public PreFilter preFilter() {
+    return request -> {
+      publish(new Request(System.currentTimeMillis(), request.method(), request.path().toPath()));
+      return Either.right(request);
+    };
+  }
+
+  public PostFilter postFilter() {
+    return response -> {
+      publish(new Response(System.currentTimeMillis(), response.status().code(), response.body().size()));
+      return response;
+    };
+  }
+
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      appender.close();
+    }
+  }
+
+  private void publish(Event event) {
+    if (buffer.offer(event)) {
+      if (idle) {
+        LockSupport.unpark(writer);
+      }
+      return;
+    }
+    if (policy == Policy.DROP || !running) {
+      dropped.increment();
+      return;
+    }
+    while (!buffer.offer(event)) {
+      if (!running) {
+        dropped.increment();
+        return;
+      }
+      LockSupport.parkNanos(FULL_NANOS);
+    }
+  }
+
+  private void drain() {
+    var batch = new ArrayList<String>(batchSize);
+    long reported = 0;
+    while (running || !buffer.isEmpty()) {
+      int count = buffer.drain(event -> batch.add(event.format()), batchSize);
+      long current = dropped.sum();
+      if (current > reported) {
+        LOGGER.warn("access log dropped {} entries", current - reported);
+        reported = current;
+      }
+      if (batch.isEmpty()) {
+        sleep();
+        continue;
+      }
+      try {
+        appender.append(batch);
+      } catch (RuntimeException e) {
+        dropped.add(count);
+      }
+      batch.clear();
+    }
+  }
+
+  /**
+   * Idle is set before looking at the buffer again, so an event published after the check
+   * always finds it set and wakes the writer up.
+   */
+  private void sleep() {
+    idle = true;
+    try {
+      if (running && buffer.isEmpty()) {
+        LockSupport.parkNanos(IDLE_NANOS);
+      }
+    } finally {
+      idle = false;
+    }
+  }
+}
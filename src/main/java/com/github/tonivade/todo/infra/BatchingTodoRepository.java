@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Operator1;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.typeclasses.Monad;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoQuery;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.domain.TodoSink;
+
+/**
+ * Coalesces concurrent creates. A writer thread waits for the first create, then keeps
+ * collecting until the batch is full or the max delay since the first one expires, and sends
+ * the whole batch as a single {@link TodoRepository#bulk(Sequence)}, that in the database
+ * repository is one jdbc batch in one transaction. Every caller gets its own todo with the
+ * generated id. Everything else goes straight to the delegate.
+ */
+public final class BatchingTodoRepository implements TodoRepository<Task<?>>, AutoCloseable {
+
+  private final TodoRepository<Task<?>> delegate;
+  private final int batchSize;
+  private final long maxDelay;
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+
+  private volatile boolean running = true;
+
+  public BatchingTodoRepository(TodoRepository<Task<?>> delegate, int batchSize, Duration maxDelay) {
+    checkPositive(batchSize, "batchSize must be a positive value");
+    checkNonNull(maxDelay);
+    this.delegate = checkNonNull(delegate);
+    this.batchSize = batchSize;
+    this.maxDelay = maxDelay.toNanos();
+    this.writer = Thread.ofPlatform().name("create-batcher").daemon().start(this::run);
+  }
+
+  @Override
+  public Monad<Task<?>> monad() {
+    return delegate.monad();
+  }
+
+  @Override
+  public Task<Todo> create(Todo todo) {
+    return Task.task(() -> {
+      var pending = new Pending(todo, new CompletableFuture<>());
+      queue.add(pending);
+      try {
+        return pending.created().join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    });
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findAll() {
+    return delegate.findAll().fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return delegate.findPage(after, limit).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    return delegate.forEach(consumer).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Unit> forEachRow(TodoSink sink) {
+    return delegate.forEachRow(sink).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findBy(TodoQuery query) {
+    return delegate.findBy(query).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> search(String query, int limit) {
+    return delegate.search(query, limit).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> find(Id id) {
+    return delegate.find(id).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> update(Todo todo) {
+    return delegate.update(todo).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> modify(Id id, Operator1<Todo> update) {
+    return delegate.modify(id, update).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Option<TodoOperation>>> bulk(Sequence<TodoOperation> operations) {
+    return delegate.bulk(operations).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Unit> deleteAll() {
+    return delegate.deleteAll().fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Boolean> delete(Id id) {
+    return delegate.delete(id).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    var batch = new ArrayList<Pending>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        var first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelay;
+        while (batch.size() < batchSize) {
+          if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+            continue;
+          }
+          long remaining = deadline - System.nanoTime();
+          var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        batch.forEach(pending -> pending.created().completeExceptionally(e));
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<Pending> batch) {
+    var operations = ImmutableList.from(
+        batch.stream().<TodoOperation>map(pending -> new TodoOperation.Create(pending.todo())).toList());
+    try {
+      var results = delegate.bulk(operations).fix(TaskOf::toTask).unsafeRunSync();
+      int i = 0;
+      for (var result : results) {
+        var pending = batch.get(i++);
+        if (result.getOrElseNull() instanceof TodoOperation.Create(var created)) {
+          pending.created().complete(created);
+        }
+      }
+    } catch (RuntimeException e) {
+      batch.forEach(pending -> pending.created().completeExceptionally(e));
+    } finally {
+      // nobody must wait forever, whatever the delegate did
+      batch.forEach(pending -> pending.created().completeExceptionally(new IllegalStateException("todo not created")));
+    }
+  }
+
+  private record Pending(Todo todo, CompletableFuture<Todo> created) {}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+
+/**
+ * Ids reserved from a database sequence in blocks of {@link TodoDAO#ID_BLOCK}, the sequence
+ * is incremented by the size of the block, so only one query is needed for each block, and
+ * the ids are unique between instances and restarts. Ids of a block that is not used before
+ * a restart are lost.
+ */
+public final class BlockIdGenerator implements IdGenerator {
+
+  private final TodoDAO dao;
+  private final DataSource dataSource;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private long next;
+  private long limit;
+
+  public BlockIdGenerator(TodoDAO dao, DataSource dataSource) {
+    this.dao = checkNonNull(dao);
+    this.dataSource = checkNonNull(dataSource);
+  }
+
+  @Override
+  public int nextId() {
+    lock.lock();
+    try {
+      if (next == limit) {
+        reserve();
+      }
+      return Math.toIntExact(next++);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void reserve() {
+    try (var connection = dataSource.getConnection()) {
+      next = dao.nextIdBlock().run(connection);
+      limit = next + TodoDAO.ID_BLOCK;
+    } catch (SQLException e) {
+      throw new IllegalStateException("cannot reserve a block of ids", e);
+    }
+  }
+}
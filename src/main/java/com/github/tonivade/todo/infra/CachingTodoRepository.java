@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Operator1;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.typeclasses.Monad;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoQuery;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.domain.TodoSink;
+
+public final class CachingTodoRepository implements TodoRepository<Task<?>> {
+
+  public record Stats(long hits, long misses, long evictions, int size) {}
+
+  private final TodoRepository<Task<?>> delegate;
+  private final TodoCache cache;
+
+  public CachingTodoRepository(TodoRepository<Task<?>> delegate, int maximumSize) {
+    this.delegate = checkNonNull(delegate);
+    this.cache = new TodoCache(maximumSize);
+  }
+
+  public Stats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public Monad<Task<?>> monad() {
+    return delegate.monad();
+  }
+
+  @Override
+  public Task<Todo> create(Todo todo) {
+    return delegate.create(todo).fix(TaskOf::toTask).map(created -> {
+      cache.invalidate(created.getId());
+      return created;
+    });
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findAll() {
+    return delegate.findAll().fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return delegate.findPage(after, limit).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    return delegate.forEach(consumer).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Unit> forEachRow(TodoSink sink) {
+    return delegate.forEachRow(sink).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findBy(TodoQuery query) {
+    return delegate.findBy(query).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> search(String query, int limit) {
+    return delegate.search(query, limit).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> find(Id id) {
+    return Task.task(() -> cache.get(id.value())).flatMap(cached -> {
+      if (cached.isPresent()) {
+        return Task.pure(cached);
+      }
+      long epoch = cache.epoch();
+      return delegate.find(id).fix(TaskOf::toTask).map(option -> {
+        if (option.isPresent()) {
+          cache.put(id.value(), option.getOrElseThrow(), epoch);
+        }
+        return option;
+      });
+    });
+  }
+
+  @Override
+  public Task<Option<Todo>> update(Todo todo) {
+    return delegate.update(todo).fix(TaskOf::toTask)
+        .map(option -> {
+          cache.invalidate(todo.getId());
+          return option;
+        });
+  }
+
+  @Override
+  public Task<Option<Todo>> modify(Id id, Operator1<Todo> update) {
+    return delegate.modify(id, update).fix(TaskOf::toTask)
+        .map(option -> {
+          cache.invalidate(id.value());
+          return option;
+        });
+  }
+
+  @Override
+  public Task<Sequence<Option<TodoOperation>>> bulk(Sequence<TodoOperation> operations) {
+    return delegate.bulk(operations).fix(TaskOf::toTask).map(results -> {
+      for (var operation : operations) {
+        switch (operation) {
+          case TodoOperation.Create _ -> {}
+          case TodoOperation.Update(var todo) -> cache.invalidate(todo.getId());
+          case TodoOperation.Delete(var id) -> cache.invalidate(id.value());
+        }
+      }
+      return results;
+    });
+  }
+
+  @Override
+  public Task<Unit> deleteAll() {
+    return delegate.deleteAll().fix(TaskOf::toTask).map(unit -> {
+      cache.invalidateAll();
+      return unit;
+    });
+  }
+
+  @Override
+  public Task<Boolean> delete(Id id) {
+    return delegate.delete(id).fix(TaskOf::toTask).map(removed -> {
+      cache.invalidate(id.value());
+      return removed;
+    });
+  }
+}
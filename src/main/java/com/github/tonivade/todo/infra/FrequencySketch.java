@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch with four rows of saturating counters, used to estimate how often a key
+ * has been accessed. Counters are halved once the number of increments reaches ten times the
+ * capacity, so old popularity fades away.
+ */
+final class FrequencySketch {
+
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = { 0x97cb3127, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+  private final AtomicIntegerArray table;
+  private final int mask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger();
+
+  FrequencySketch(int capacity) {
+    int width = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+    this.table = new AtomicIntegerArray(width * ROWS);
+    this.mask = width - 1;
+    this.sampleSize = 10 * Math.max(capacity, 16);
+  }
+
+  void increment(int key) {
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      int index = index(key, row);
+      int count = table.get(index);
+      if (count < MAX_COUNT && table.compareAndSet(index, count, count + 1)) {
+        added = true;
+      }
+    }
+    if (added && additions.incrementAndGet() >= sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(int key) {
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      frequency = Math.min(frequency, table.get(index(key, row)));
+    }
+    return frequency;
+  }
+
+  private void reset() {
+    additions.set(0);
+    for (int i = 0; i < table.length(); i++) {
+      table.set(i, table.get(i) >>> 1);
+    }
+  }
+
+  private int index(int key, int row) {
+    int hash = (key ^ SEEDS[row]) * 0x9e3779b9;
+    hash ^= hash >>> 16;
+    return row * (mask + 1) + (hash & mask);
+  }
+}
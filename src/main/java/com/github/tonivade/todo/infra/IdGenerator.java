@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.check;
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source of the ids of the new todos, so they are known before the todo is stored.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+  int nextId();
+
+  static IdGenerator sequential(AtomicInteger counter) {
+    checkNonNull(counter);
+    return counter::incrementAndGet;
+  }
+
+  /**
+   * Ids of one shard of {@code shards}, every id of the generator is mapped to an id that
+   * modulo {@code shards} is the shard, so the shard of a todo is known from its id.
+   */
+  static IdGenerator sharded(IdGenerator ids, int shard, int shards) {
+    checkNonNull(ids);
+    checkPositive(shards, "shards must be a positive value");
+    check(() -> shard >= 0 && shard < shards, "shard out of range");
+    return () -> Math.toIntExact((long) ids.nextId() * shards + shard);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.github.tonivade.purefun.effect.Task;
+
+/**
+ * Striped locks by id. A task guarded by the ids it writes runs after any other guarded task
+ * of the same ids, so what happens after the write, like updating an index, happens in the
+ * same order as the writes. A task guarded by all the ids takes every stripe, always in the
+ * same order.
+ */
+final class IdLocks {
+
+  private final ReentrantLock[] stripes;
+
+  IdLocks(int size) {
+    checkPositive(size, "size must be a positive value");
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  <T> Task<T> guard(int id, Task<T> task) {
+    return locked(new int[] { stripe(id) }, task);
+  }
+
+  <T> Task<T> guardAll(Task<T> task) {
+    var indexes = new int[stripes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = i;
+    }
+    return locked(indexes, task);
+  }
+
+  private <T> Task<T> locked(int[] indexes, Task<T> task) {
+    checkNonNull(task);
+    return Task.task(() -> {
+      int locked = 0;
+      try {
+        for (; locked < indexes.length; locked++) {
+          stripes[indexes[locked]].lock();
+        }
+        return task.unsafeRunSync();
+      } finally {
+        while (locked > 0) {
+          stripes[indexes[--locked]].unlock();
+        }
+      }
+    });
+  }
+
+  private int stripe(int id) {
+    return Math.floorMod(id, stripes.length);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.puredbc.sql.SQL;
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.type.Option;
+
+/**
+ * Plain jdbc operation for the cases {@link com.github.tonivade.puredbc.PureDBC} cannot express,
+ * like reading the affected row count of an update, or running several statements in the
+ * same transaction. Operations compose with {@code map} and {@code flatMap} over the same
+ * connection.
+ */
+@FunctionalInterface
+public interface JdbcAction<T> {
+
+  T run(Connection connection) throws SQLException;
+
+  default <R> JdbcAction<R> map(Function1<? super T, ? extends R> mapper) {
+    return connection -> mapper.apply(run(connection));
+  }
+
+  default <R> JdbcAction<R> flatMap(Function1<? super T, ? extends JdbcAction<R>> next) {
+    return connection -> next.apply(run(connection)).run(connection);
+  }
+
+  default Task<T> safeRunIO(DataSource dataSource) {
+    return Task.task(() -> {
+      try (var connection = dataSource.getConnection()) {
+        return run(connection);
+      }
+    });
+  }
+
+  default Task<T> transactional(DataSource dataSource) {
+    return Task.task(() -> {
+      try (var connection = dataSource.getConnection()) {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+          T result = run(connection);
+          connection.commit();
+          return result;
+        } catch (SQLException | RuntimeException e) {
+          connection.rollback();
+          throw e;
+        } finally {
+          connection.setAutoCommit(autoCommit);
+        }
+      }
+    });
+  }
+
+  static JdbcAction<Integer> update(String sql, @Nullable Object... params) {
+    return connection -> {
+      try (var statement = connection.prepareStatement(sql)) {
+        bind(statement, params);
+        return statement.executeUpdate();
+      }
+    };
+  }
+
+  static JdbcAction<Integer> update(SQL sql) {
+    return update(sql.getQuery(), params(sql));
+  }
+
+  static <T> JdbcAction<Option<T>> queryOne(String sql, Function1<ResultSet, T> mapper, @Nullable Object... params) {
+    return connection -> {
+      try (var statement = connection.prepareStatement(sql)) {
+        bind(statement, params);
+        try (var resultSet = statement.executeQuery()) {
+          return resultSet.next() ? Option.some(mapper.apply(resultSet)) : Option.none();
+        }
+      }
+    };
+  }
+
+  static <T> JdbcAction<Option<T>> queryOne(SQL sql, Function1<ResultSet, T> mapper) {
+    return queryOne(sql.getQuery(), mapper, params(sql));
+  }
+
+  static <T> JdbcAction<List<T>> query(SQL sql, Function1<ResultSet, T> mapper) {
+    return query(sql.getQuery(), mapper, params(sql));
+  }
+
+  static <T> JdbcAction<List<T>> query(String sql, Function1<ResultSet, T> mapper, @Nullable Object... params) {
+    return connection -> {
+      try (var statement = connection.prepareStatement(sql)) {
+        bind(statement, params);
+        try (var resultSet = statement.executeQuery()) {
+          var list = new ArrayList<T>();
+          while (resultSet.next()) {
+            list.add(mapper.apply(resultSet));
+          }
+          return list;
+        }
+      }
+    };
+  }
+
+  /**
+   * Every row is given to the consumer while the result set is open, nothing is kept.
+   */
+  static JdbcAction<Unit> forEach(SQL sql, Consumer1<ResultSet> consumer) {
+    return forEach(sql.getQuery(), consumer, params(sql));
+  }
+
+  static JdbcAction<Unit> forEach(String sql, Consumer1<ResultSet> consumer, @Nullable Object... params) {
+    return connection -> {
+      try (var statement = connection.prepareStatement(sql)) {
+        bind(statement, params);
+        try (var resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            consumer.accept(resultSet);
+          }
+          return Unit.unit();
+        }
+      }
+    };
+  }
+
+  static JdbcAction<int[]> batch(String sql, Iterable<@Nullable Object[]> params) {
+    return connection -> {
+      try (var statement = connection.prepareStatement(sql)) {
+        for (var values : params) {
+          bind(statement, values);
+          statement.addBatch();
+        }
+        return statement.executeBatch();
+      }
+    };
+  }
+
+  private static @Nullable Object[] params(SQL sql) {
+    return sql.getParams().stream().toArray();
+  }
+
+  private static void bind(PreparedStatement statement, @Nullable Object... params) throws SQLException {
+    for (int i = 0; i < params.length; i++) {
+      statement.setObject(i + 1, params[i]);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Chooses the data source of every statement. Writes always go to the primary, reads go to one
+ * of the replicas, chosen round robin or by the number of connections in use. After a write, the
+ * reads of the same todo, and the reads of the whole list, go to the primary for a while, so
+ * whoever made the write sees it even if the replicas are behind.
+ */
+public final class ReplicaRouter {
+
+  public enum Selection { ROUND_ROBIN, LEAST_BUSY }
+
+  private static final int PURGE_THRESHOLD = 10_000;
+
+  private final DataSource primary;
+  private final List<ThrottledDataSource> replicas;
+  private final Selection selection;
+  private final long window;
+
+  private final AtomicInteger next = new AtomicInteger();
+  private final Map<Integer, Long> recentWrites = new ConcurrentHashMap<>();
+  private volatile long lastWrite;
+
+  public ReplicaRouter(DataSource primary, List<ThrottledDataSource> replicas, Selection selection, Duration window) {
+    this.primary = checkNonNull(primary);
+    this.replicas = List.copyOf(replicas);
+    this.selection = checkNonNull(selection);
+    this.window = window.toNanos();
+    this.lastWrite = System.nanoTime() - this.window;
+  }
+
+  public static ReplicaRouter primaryOnly(DataSource primary) {
+    return new ReplicaRouter(primary, List.of(), Selection.ROUND_ROBIN, Duration.ZERO);
+  }
+
+  public DataSource primary() {
+    return primary;
+  }
+
+  public DataSource read(int id) {
+    var written = recentWrites.get(id);
+    if (written != null) {
+      if (System.nanoTime() - written < window) {
+        return primary;
+      }
+      recentWrites.remove(id, written);
+    }
+    return replica();
+  }
+
+  public DataSource readAll() {
+    return System.nanoTime() - lastWrite < window ? primary : replica();
+  }
+
+  public void written(int id) {
+    long now = System.nanoTime();
+    lastWrite = now;
+    if (replicas.isEmpty()) {
+      return;
+    }
+    recentWrites.put(id, now);
+    if (recentWrites.size() > PURGE_THRESHOLD) {
+      recentWrites.values().removeIf(time -> now - time >= window);
+    }
+  }
+
+  public void writtenAll() {
+    lastWrite = System.nanoTime();
+  }
+
+  private DataSource replica() {
+    if (replicas.isEmpty()) {
+      return primary;
+    }
+    return switch (selection) {
+      case ROUND_ROBIN -> replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+      case LEAST_BUSY -> replicas.stream().min(Comparator.comparingInt(ThrottledDataSource::inUse)).orElseThrow();
+    };
+  }
+}
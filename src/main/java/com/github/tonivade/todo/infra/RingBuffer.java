@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.core.Consumer1;
+
+/**
+ * Bounded lock-free multi-producer single-consumer queue. Each slot carries a sequence
+ * number so producers only contend on the claim of a position and never on a lock.
+ */
+final class RingBuffer<T> {
+
+  private final int mask;
+  private final AtomicReferenceArray<@Nullable T> buffer;
+  private final AtomicLongArray sequences;
+  private final AtomicLong producer = new AtomicLong();
+  private volatile long consumer;
+
+  RingBuffer(int capacity) {
+    checkPositive(capacity, "capacity must be a positive value");
+    int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.mask = size - 1;
+    this.buffer = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  boolean offer(T value) {
+    long position = producer.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long diff = sequences.get(index) - position;
+      if (diff == 0) {
+        if (producer.compareAndSet(position, position + 1)) {
+          buffer.set(index, value);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = producer.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        position = producer.get();
+      }
+    }
+  }
+
+  /**
+   * Must be called only from the consumer thread.
+   */
+  int drain(Consumer1<T> consumer, int limit) {
+    long position = this.consumer;
+    int count = 0;
+    while (count < limit) {
+      int index = (int) (position & mask);
+      if (sequences.get(index) != position + 1) {
+        break;
+      }
+      T value = buffer.get(index);
+      buffer.set(index, null);
+      sequences.set(index, position + mask + 1);
+      position++;
+      count++;
+      if (value != null) {
+        consumer.accept(value);
+      }
+    }
+    this.consumer = position;
+    return count;
+  }
+
+  boolean isEmpty() {
+    return producer.get() == consumer;
+  }
+}
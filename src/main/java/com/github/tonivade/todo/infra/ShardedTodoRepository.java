@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.check;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import com.github.tonivade.purefun.Kind;
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Function1;
+import com.github.tonivade.purefun.core.Function2;
+import com.github.tonivade.purefun.core.Operator1;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.typeclasses.Instances;
+import com.github.tonivade.purefun.typeclasses.Monad;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.TitleIndex;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoQuery;
+import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.domain.TodoSink;
+
+/**
+ * Todos partitioned by id between several repositories. The shard of a todo is its id modulo
+ * the number of shards, so the ids must be generated with {@link IdGenerator#sharded}. New
+ * todos are spread round robin, operations of a single todo go to its shard, and the reads of
+ * pages and queries go to all the shards in parallel and are merged, in id order unless the
+ * query says otherwise. Every todo, buffered or streamed, comes shard after shard, so both
+ * lists are the same. Bulk operations are split by shard, so they are atomic in each shard
+ * but not between shards.
+ */
+public final class ShardedTodoRepository implements TodoRepository<Task<?>>, AutoCloseable {
+
+  private final List<TodoRepository<Task<?>>> shards;
+  private final AtomicInteger next = new AtomicInteger();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ShardedTodoRepository(List<TodoRepository<Task<?>>> shards) {
+    check(() -> !shards.isEmpty(), "at least one shard is needed");
+    this.shards = List.copyOf(shards);
+  }
+
+  @Override
+  public Monad<Task<?>> monad() {
+    return Instances.monad();
+  }
+
+  @Override
+  public Task<Todo> create(Todo todo) {
+    return Task.task(this::nextShard).flatMap(shard -> shards.get(shard).create(todo).fix(TaskOf::toTask));
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findAll() {
+    return fanOut(TodoRepository::findAll).map(results -> {
+      var all = new ArrayList<Todo>();
+      results.forEach(result -> result.forEach(all::add));
+      return ImmutableList.from(all);
+    });
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return fanOut(shard -> shard.findPage(after, limit)).map(results -> merge(results, TodoQuery.BY_ID, limit));
+  }
+
+  /**
+   * Shards are read one after the other, so the consumer is never called concurrently. A merge
+   * in id order would need every shard to stream in id order, and they don't have to.
+   */
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    Task<Unit> result = Task.pure(Unit.unit());
+    for (var shard : shards) {
+      result = result.flatMap(_ -> shard.forEach(consumer).fix(TaskOf::toTask));
+    }
+    return result;
+  }
+
+  @Override
+  public Task<Unit> forEachRow(TodoSink sink) {
+    Task<Unit> result = Task.pure(Unit.unit());
+    for (var shard : shards) {
+      result = result.flatMap(_ -> shard.forEachRow(sink).fix(TaskOf::toTask));
+    }
+    return result;
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findBy(TodoQuery query) {
+    return fanOut(shard -> shard.findBy(query)).map(results -> merge(results, query.comparator(), Integer.MAX_VALUE));
+  }
+
+  /**
+   * Every shard returns its best matches, and they are ranked again together, so the result
+   * is the same as with only one repository.
+   */
+  @Override
+  public Task<Sequence<Todo>> search(String query, int limit) {
+    return fanOut(shard -> shard.search(query, limit)).map(results -> {
+      var all = new ArrayList<Todo>();
+      results.forEach(result -> result.forEach(all::add));
+      return TitleIndex.search(all, query, limit);
+    });
+  }
+
+  @Override
+  public Task<Option<Todo>> find(Id id) {
+    return shardOf(id.value()).find(id).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> update(Todo todo) {
+    return shardOf(todo.getId()).update(todo).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Option<Todo>> modify(Id id, Operator1<Todo> update) {
+    return shardOf(id.value()).modify(id, update).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public Task<Sequence<Option<TodoOperation>>> bulk(Sequence<TodoOperation> operations) {
+    return Task.task(() -> {
+      var positions = new ArrayList<List<Integer>>();
+      var batches = new ArrayList<List<TodoOperation>>();
+      for (int i = 0; i < shards.size(); i++) {
+        positions.add(new ArrayList<>());
+        batches.add(new ArrayList<>());
+      }
+      int position = 0;
+      for (var operation : operations) {
+        int shard = switch (operation) {
+          case TodoOperation.Create _ -> nextShard();
+          case TodoOperation.Update(var todo) -> shardIndex(todo.getId());
+          case TodoOperation.Delete(var id) -> shardIndex(id.value());
+        };
+        positions.get(shard).add(position++);
+        batches.get(shard).add(operation);
+      }
+      return new Split(positions, batches, position);
+    }).flatMap(split -> fanOut((index, shard) -> {
+      var batch = split.batches().get(index);
+      if (batch.isEmpty()) {
+        return Task.<Sequence<Option<TodoOperation>>>pure(ImmutableList.empty());
+      }
+      return shard.bulk(ImmutableList.from(batch));
+    }).map(results -> {
+      var merged = new ArrayList<Option<TodoOperation>>(split.size());
+      for (int i = 0; i < split.size(); i++) {
+        merged.add(Option.none());
+      }
+      for (int shard = 0; shard < shards.size(); shard++) {
+        var positions = split.positions().get(shard).iterator();
+        for (var result : results.get(shard)) {
+          merged.set(positions.next(), result);
+        }
+      }
+      return ImmutableList.from(merged);
+    }));
+  }
+
+  @Override
+  public Task<Unit> deleteAll() {
+    return fanOut(TodoRepository::deleteAll).map(_ -> Unit.unit());
+  }
+
+  @Override
+  public Task<Boolean> delete(Id id) {
+    return shardOf(id.value()).delete(id).fix(TaskOf::toTask);
+  }
+
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  private int nextShard() {
+    return Math.floorMod(next.getAndIncrement(), shards.size());
+  }
+
+  private int shardIndex(int id) {
+    return Math.floorMod(id, shards.size());
+  }
+
+  private TodoRepository<Task<?>> shardOf(int id) {
+    return shards.get(shardIndex(id));
+  }
+
+  private <T> Task<List<T>> fanOut(Function1<TodoRepository<Task<?>>, Kind<Task<?>, T>> action) {
+    return fanOut((_, shard) -> action.apply(shard));
+  }
+
+  private <T> Task<List<T>> fanOut(Function2<Integer, TodoRepository<Task<?>>, Kind<Task<?>, T>> action) {
+    return Task.task(() -> {
+      var futures = IntStream.range(0, shards.size())
+          .mapToObj(index -> CompletableFuture.supplyAsync(
+              () -> action.apply(index, shards.get(index)).fix(TaskOf::toTask).unsafeRunSync(), executor))
+          .toList();
+      try {
+        return futures.stream().map(CompletableFuture::join).toList();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    });
+  }
+
+  private static Sequence<Todo> merge(List<Sequence<Todo>> results, Comparator<Todo> order, int limit) {
+    return ImmutableList.from(results.stream().flatMap(Sequence::stream).sorted(order).limit(limit).toList());
+  }
+
+  private record Split(List<List<Integer>> positions, List<List<TodoOperation>> batches, int size) {}
+}
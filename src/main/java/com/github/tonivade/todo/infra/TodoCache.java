@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+/**
+ * Size bounded cache of todos by id. When the cache is full a new entry is only admitted if
+ * it has been requested more often than the oldest entry, otherwise the oldest entry gets a
+ * second chance and the new one is discarded (TinyLFU admission over a FIFO queue).
+ */
+final class TodoCache {
+
+  private final int maximumSize;
+  private final Map<Integer, Todo> entries = new ConcurrentHashMap<>();
+  private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+  private final FrequencySketch sketch;
+  private final AtomicLong epoch = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  TodoCache(int maximumSize) {
+    checkPositive(maximumSize, "maximum size must be a positive value");
+    this.maximumSize = maximumSize;
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  Option<Todo> get(int id) {
+    sketch.increment(id);
+    var todo = entries.get(id);
+    if (todo != null) {
+      hits.increment();
+      return Option.some(todo);
+    }
+    misses.increment();
+    return Option.none();
+  }
+
+  /**
+   * Current write epoch. A value read from the delegate is only cached if no write happened
+   * since the epoch was taken, so a slow read cannot resurrect a stale todo.
+   */
+  long epoch() {
+    return epoch.get();
+  }
+
+  void put(int id, Todo todo, long expected) {
+    synchronized (queue) {
+      if (epoch.get() != expected) {
+        return;
+      }
+      if (entries.replace(id, todo) != null) {
+        return;
+      }
+      if (entries.size() >= maximumSize && !evict(id)) {
+        return;
+      }
+      entries.put(id, todo);
+      queue.offer(id);
+      if (queue.size() > maximumSize << 1) {
+        queue.removeIf(key -> !entries.containsKey(key));
+      }
+    }
+  }
+
+  /**
+   * The epoch is changed under the same lock as {@link #put}, so a put that checked the old
+   * epoch has already finished, and its entry is removed here.
+   */
+  void invalidate(int id) {
+    synchronized (queue) {
+      epoch.incrementAndGet();
+      entries.remove(id);
+    }
+  }
+
+  void invalidateAll() {
+    synchronized (queue) {
+      epoch.incrementAndGet();
+      entries.clear();
+      queue.clear();
+    }
+  }
+
+  CachingTodoRepository.Stats stats() {
+    return new CachingTodoRepository.Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+  }
+
+  private boolean evict(int candidate) {
+    while (true) {
+      var victim = queue.poll();
+      if (victim == null) {
+        return true;
+      }
+      if (!entries.containsKey(victim)) {
+        continue;
+      }
+      if (sketch.frequency(candidate) <= sketch.frequency(victim)) {
+        queue.offer(victim);
+        return false;
+      }
+      entries.remove(victim);
+      evictions.increment();
+      return true;
+    }
+  }
+}
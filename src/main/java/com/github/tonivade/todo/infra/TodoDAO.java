@@ -4,17 +4,29 @@
  */
 package com.github.tonivade.todo.infra;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
 import com.github.tonivade.puredbc.PureDBC;
 import com.github.tonivade.puredbc.Row;
 import com.github.tonivade.puredbc.sql.SQL;
 import com.github.tonivade.puredbc.sql.SQL1;
-import com.github.tonivade.puredbc.sql.SQL2;
-import com.github.tonivade.puredbc.sql.SQL4;
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Operator1;
+import com.github.tonivade.purefun.core.Tuple2;
 import com.github.tonivade.purefun.core.Unit;
 import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.TodoSink;
 
 public final class TodoDAO {
 
+  static final int ID_BLOCK = 50;
+
   private static final TodoTable TODO = new TodoTable();
 
   private static final SQL CREATE =
@@ -24,40 +36,181 @@ public final class TodoDAO {
                 title varchar(100) not null,
                 position int,
                 completed bit not null default 0,
+                version int not null default 0,
                 primary key (id))
               """);
-  private static final SQL2<String, Integer> INSERT_TODO = SQL.insertInto(TODO).values(TODO.TITLE, TODO.ORDER);
-  private static final SQL4<String, Integer, Boolean, Long> UPDATE_TODO =
-      SQL.update(TODO).set(TODO.TITLE, TODO.ORDER, TODO.COMPLETED).where(TODO.ID.eq());
+  private static final SQL CREATE_STATE_INDEX =
+      SQL.sql("create index if not exists todo_completed on todo (completed, position, id)");
+  private static final SQL CREATE_ORDER_INDEX =
+      SQL.sql("create index if not exists todo_position on todo (position, id)");
+  // for the schemas created before the version column existed
+  private static final String ADD_VERSION =
+      "alter table todo add column if not exists version int not null default 0";
+  private static final String NEXT_FREE_ID = "select coalesce(max(id), 0) + 1 from todo";
+  private static final String CREATE_SEQUENCE =
+      "create sequence if not exists todo_id start with %d increment by " + ID_BLOCK;
+  private static final String NEXT_ID_BLOCK = "select next value for todo_id";
+  private static final String INSERT_TODO = "insert into todo (id, title, position) values (?, ?, ?)";
+  private static final String DELETE_BATCH = "delete from todo where id = ?";
+  private static final String UPDATE_TODO =
+      "update todo set title = ?, position = ?, completed = ?, version = version + 1 where id = ?";
+  // the dsl cannot express the increment of the version
+  private static final String UPDATE_TODO_VERSION =
+      "update todo set title = ?, position = ?, completed = ?, version = version + 1 where id = ? and version = ?";
   private static final SQL FIND_ALL = SQL.selectFrom(TODO);
+  private static final SQL1<Long> FIND_WITH_VERSION =
+      SQL.select(TODO.ID, TODO.TITLE, TODO.ORDER, TODO.COMPLETED, TODO.VERSION).from(TODO).where(TODO.ID.eq());
+  private static final SQL ORDER_BY_ID = FIND_ALL.orderBy(TODO.ID);
+  private static final SQL1<Boolean> BY_STATE_ORDER_BY_ID = FIND_ALL.where(TODO.COMPLETED.eq()).orderBy(TODO.ID);
+  // nor the nulls last of the sort by position
+  private static final String ORDER_BY_POSITION = FIND_ALL.getQuery() + " order by position nulls last, id";
+  private static final String BY_STATE_ORDER_BY_POSITION =
+      FIND_ALL.getQuery() + " where completed = ? order by position nulls last, id";
   private static final SQL1<Long> FIND_BY_ID = FIND_ALL.where(TODO.ID.eq());
+  private static final SQL1<Long> FIND_AFTER = FIND_ALL.where(TODO.ID.gt()).orderBy(TODO.ID);
   private static final SQL DELETE_ALL = SQL.deleteFrom(TODO);
   private static final SQL1<Long> DELETE_BY_ID = DELETE_ALL.where(TODO.ID.eq());
 
-  public PureDBC<Unit> create() {
-    return PureDBC.update(CREATE);
+  /**
+   * Creates the schema, or migrates the one of an older version. The sequence, when it's created,
+   * starts after the ids already used, so the todos created before it are never overwritten.
+   */
+  public JdbcAction<Unit> create() {
+    return JdbcAction.update(CREATE)
+        .flatMap(_ -> JdbcAction.update(ADD_VERSION))
+        .flatMap(_ -> JdbcAction.update(CREATE_STATE_INDEX))
+        .flatMap(_ -> JdbcAction.update(CREATE_ORDER_INDEX))
+        .flatMap(_ -> JdbcAction.queryOne(NEXT_FREE_ID, resultSet -> resultSet.getLong(1)))
+        .flatMap(start -> JdbcAction.update(CREATE_SEQUENCE.formatted(start.getOrElse(1L))))
+        .map(_ -> Unit.unit());
+  }
+
+  /**
+   * First id of the next block of {@link #ID_BLOCK} ids.
+   */
+  public JdbcAction<Long> nextIdBlock() {
+    return JdbcAction.queryOne(NEXT_ID_BLOCK, resultSet -> resultSet.getLong(1)).map(Option::getOrElseThrow);
+  }
+
+  /**
+   * Inserts a todo with an id already assigned, so there is no need to read the generated key.
+   */
+  public JdbcAction<Unit> insert(TodoEntity entity) {
+    return JdbcAction.update(INSERT_TODO, entity.id(), entity.title(), entity.order()).map(_ -> Unit.unit());
   }
 
-  public PureDBC<Long> insert(TodoEntity entity) {
-    return PureDBC.updateWithKeys(
-        INSERT_TODO.bind(entity.title(), entity.order()), TODO.ID).map(Option::getOrElseThrow);
+  public JdbcAction<Boolean> update(TodoEntity entity) {
+    return JdbcAction.update(UPDATE_TODO,
+        entity.title(),
+        entity.order(),
+        entity.completed(),
+        entity.id()
+    ).map(rows -> rows > 0);
   }
 
-  public PureDBC<Unit> update(TodoEntity entity) {
-    return PureDBC.update(
-        UPDATE_TODO.bind(
-            entity.title(),
-            entity.order(),
-            entity.completed(),
-            entity.id()
-        )
-    );
+  /**
+   * Read-modify-write guarded by the version column. If another writer changed the row between
+   * the read and the update, the update affects no rows and it fails with a
+   * {@link ConcurrentModificationException}, so the caller can retry the whole transaction.
+   */
+  public JdbcAction<Option<TodoEntity>> modify(long id, Operator1<TodoEntity> update) {
+    return connection -> {
+      var current = JdbcAction.queryOne(FIND_WITH_VERSION.bind(id), this::toEntityWithVersion).run(connection);
+      if (current.isEmpty()) {
+        return Option.none();
+      }
+      var version = current.getOrElseThrow().get2();
+      var entity = update.apply(current.getOrElseThrow().get1());
+      var rows = JdbcAction.update(UPDATE_TODO_VERSION,
+          entity.title(),
+          entity.order(),
+          entity.completed(),
+          id,
+          version
+      ).run(connection);
+      if (rows == 0) {
+        throw new ConcurrentModificationException("todo " + id + " was modified by another writer");
+      }
+      return Option.some(entity);
+    };
+  }
+
+  public JdbcAction<Unit> insertBatch(List<TodoEntity> entities) {
+    return JdbcAction.batch(INSERT_TODO,
+        entities.stream().map(entity -> new @Nullable Object[] { entity.id(), entity.title(), entity.order() }).toList())
+        .map(_ -> Unit.unit());
+  }
+
+  public JdbcAction<List<Boolean>> updateBatch(List<TodoEntity> entities) {
+    return JdbcAction.batch(UPDATE_TODO,
+        entities.stream().map(entity -> new @Nullable Object[] {
+            entity.title(), entity.order(), entity.completed(), entity.id() }).toList())
+        .map(TodoDAO::affected);
+  }
+
+  public JdbcAction<List<Boolean>> deleteBatch(List<Long> ids) {
+    return JdbcAction.batch(DELETE_BATCH,
+        ids.stream().map(id -> new @Nullable Object[] { id }).toList())
+        .map(TodoDAO::affected);
   }
 
   public PureDBC<Iterable<TodoEntity>> findAll() {
     return PureDBC.queryIterable(FIND_ALL, this::toEntity);
   }
 
+  public PureDBC<Unit> forEach(Consumer1<TodoEntity> consumer) {
+    return findAll().map(iterable -> {
+      iterable.forEach(consumer::accept);
+      return Unit.unit();
+    });
+  }
+
+  /**
+   * Columns of every row straight to the sink, without building an entity for each one.
+   */
+  public JdbcAction<Unit> forEachRow(TodoSink sink) {
+    return JdbcAction.forEach(ORDER_BY_ID, resultSet -> {
+      int id = resultSet.getInt(1);
+      var title = resultSet.getString(2);
+      int position = resultSet.getInt(3);
+      Integer order = resultSet.wasNull() ? null : position;
+      sink.accept(id, title, order, resultSet.getBoolean(4));
+    });
+  }
+
+  public PureDBC<Iterable<TodoEntity>> findPage(long after, int limit) {
+    return PureDBC.queryIterable(FIND_AFTER.bind(after).limit(limit), this::toEntity);
+  }
+
+  /**
+   * Todos filtered by state, if given, and sorted by id or by position. Both cases are served by
+   * the indexes on {@code (completed, position, id)} and {@code (position, id)}.
+   */
+  public JdbcAction<List<TodoEntity>> findBy(Option<Boolean> completed, boolean byPosition) {
+    if (byPosition) {
+      return completed.isPresent()
+          ? JdbcAction.query(BY_STATE_ORDER_BY_POSITION, this::readEntity, completed.getOrElseThrow())
+          : JdbcAction.query(ORDER_BY_POSITION, this::readEntity);
+    }
+    return completed.isPresent()
+        ? JdbcAction.query(BY_STATE_ORDER_BY_ID.bind(completed.getOrElseThrow()), this::readEntity)
+        : JdbcAction.query(ORDER_BY_ID, this::readEntity);
+  }
+
+  /**
+   * Todos with all the words in the title, as a word or inside one, so the caller can rank them.
+   * The words are only letters and digits, so there is nothing to escape in the patterns.
+   */
+  public JdbcAction<List<TodoEntity>> search(List<String> words) {
+    var query = new StringBuilder(FIND_ALL.getQuery());
+    var params = new @Nullable Object[words.size()];
+    for (int i = 0; i < words.size(); i++) {
+      query.append(i == 0 ? " where " : " and ").append("lower(title) like ?");
+      params[i] = "%" + words.get(i) + "%";
+    }
+    return JdbcAction.query(query.append(" order by id").toString(), this::readEntity, params);
+  }
+
   public PureDBC<Option<TodoEntity>> find(long id) {
     return PureDBC.queryOne(FIND_BY_ID.bind(id), this::toEntity);
   }
@@ -66,8 +219,24 @@ public final class TodoDAO {
     return PureDBC.update(DELETE_ALL);
   }
 
-  public PureDBC<Unit> delete(long id) {
-    return PureDBC.update(DELETE_BY_ID.bind(id));
+  public JdbcAction<Boolean> delete(long id) {
+    return JdbcAction.update(DELETE_BY_ID.bind(id)).map(rows -> rows > 0);
+  }
+
+  private static List<Boolean> affected(int[] rows) {
+    return Arrays.stream(rows).mapToObj(count -> count != 0).toList();
+  }
+
+  private Tuple2<TodoEntity, Integer> toEntityWithVersion(ResultSet resultSet) throws SQLException {
+    return Tuple2.of(readEntity(resultSet), resultSet.getInt(5));
+  }
+
+  private TodoEntity readEntity(ResultSet resultSet) throws SQLException {
+    return new TodoEntity(
+        resultSet.getLong(1),
+        resultSet.getString(2),
+        resultSet.getObject(3, Integer.class),
+        resultSet.getBoolean(4));
   }
 
   private TodoEntity toEntity(Row row) {
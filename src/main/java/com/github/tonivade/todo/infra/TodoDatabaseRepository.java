@@ -5,8 +5,12 @@
 package com.github.tonivade.todo.infra;
 
 import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
 import javax.sql.DataSource;
-import com.github.tonivade.puredbc.PureDBC;
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Operator1;
 import com.github.tonivade.purefun.core.Unit;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.Sequence;
@@ -15,17 +19,38 @@ import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.purefun.typeclasses.Instances;
 import com.github.tonivade.purefun.typeclasses.Monad;
 import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.TitleIndex;
 import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoQuery;
 import com.github.tonivade.todo.domain.TodoRepository;
+import com.github.tonivade.todo.domain.TodoSink;
 
+/**
+ * Writes are not serialized here, the database does it: a read-modify-write is guarded by the
+ * version of the row and runs again if another writer changed it. Searches go to the database,
+ * so they see the writes of every process that shares it.
+ */
 public final class TodoDatabaseRepository implements TodoRepository<Task<?>> {
 
+  private static final int MAX_ATTEMPTS = 5;
+
   private final TodoDAO dao;
-  private final DataSource dataSource;
+  private final ReplicaRouter router;
+  private final IdGenerator ids;
 
   public TodoDatabaseRepository(TodoDAO dao, DataSource dataSource) {
+    this(dao, ReplicaRouter.primaryOnly(dataSource));
+  }
+
+  public TodoDatabaseRepository(TodoDAO dao, ReplicaRouter router) {
+    this(dao, router, new BlockIdGenerator(dao, router.primary()));
+  }
+
+  public TodoDatabaseRepository(TodoDAO dao, ReplicaRouter router, IdGenerator ids) {
     this.dao = checkNonNull(dao);
-    this.dataSource = checkNonNull(dataSource);
+    this.router = checkNonNull(router);
+    this.ids = checkNonNull(ids);
   }
 
   @Override
@@ -33,49 +58,196 @@ public final class TodoDatabaseRepository implements TodoRepository<Task<?>> {
     return Instances.monad();
   }
 
+  /**
+   * The id is taken before getting a connection, so a block of ids can be reserved without
+   * holding two connections at the same time.
+   */
   @Override
   public Task<Todo> create(Todo todo) {
-    return PureDBC.pure(todo)
-        .map(TodoEntity::fromDomain)
-        .flatMap(dao::insert)
-        .map(Long::intValue)
+    return Task.task(ids::nextId)
         .map(todo::withId)
-        .safeRunIO(dataSource);
+        .flatMap(created -> dao.insert(TodoEntity.fromDomain(created)).map(_ -> created).safeRunIO(router.primary()))
+        .map(this::written);
   }
 
   @Override
   public Task<Sequence<Todo>> findAll() {
-    return dao.findAll()
+    return readingAll().flatMap(dao.findAll()
         .<Sequence<TodoEntity>>map(ImmutableList::from)
-        .map(seq -> seq.map(TodoEntity::toDomain))
-        .safeRunIO(dataSource);
+        .map(seq -> seq.map(TodoEntity::toDomain))::safeRunIO);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return readingAll().flatMap(dao.findPage(after.map(Id::value).getOrElse(0), limit)
+        .<Sequence<TodoEntity>>map(ImmutableList::from)
+        .map(seq -> seq.map(TodoEntity::toDomain))::safeRunIO);
+  }
+
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    return readingAll().flatMap(dao.forEach(entity -> consumer.accept(entity.toDomain()))::safeRunIO);
+  }
+
+  @Override
+  public Task<Unit> forEachRow(TodoSink sink) {
+    return readingAll().flatMap(dao.forEachRow(sink)::safeRunIO);
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findBy(TodoQuery query) {
+    return readingAll().flatMap(dao.findBy(query.completed(), query.sort() == TodoQuery.Sort.ORDER)
+        .<Sequence<Todo>>map(list -> ImmutableList.from(list.stream().map(TodoEntity::toDomain).toList()))::safeRunIO);
+  }
+
+  /**
+   * The rows with all the words are found by the database, and only those are ranked here.
+   */
+  @Override
+  public Task<Sequence<Todo>> search(String query, int limit) {
+    var words = TitleIndex.tokenize(query);
+    if (words.isEmpty()) {
+      return Task.pure(ImmutableList.empty());
+    }
+    return readingAll().flatMap(dao.search(words)
+        .map(list -> TitleIndex.search(list.stream().map(TodoEntity::toDomain).toList(), query, limit))::safeRunIO);
   }
 
   @Override
   public Task<Option<Todo>> find(Id id) {
-    return dao.find(id.value())
-        .map(option -> option.map(TodoEntity::toDomain))
-        .safeRunIO(dataSource);
+    return Task.task(() -> router.read(id.value())).flatMap(dao.find(id.value())
+        .map(option -> option.map(TodoEntity::toDomain))::safeRunIO);
   }
 
   @Override
   public Task<Option<Todo>> update(Todo todo) {
-    return dao.find(todo.getId()).flatMap(
-        option -> {
-          if (option.isPresent()) {
-            return dao.update(TodoEntity.fromDomain(todo)).map(_ -> Option.some(todo));
+    return dao.update(TodoEntity.fromDomain(todo))
+        .map(updated -> updated ? Option.some(todo) : Option.<Todo>none())
+        .safeRunIO(router.primary())
+        .map(option -> option.map(this::written));
+  }
+
+  @Override
+  public Task<Option<Todo>> modify(Id id, Operator1<Todo> update) {
+    return retrying(dao.modify(id.value(), entity -> TodoEntity.fromDomain(update.apply(entity.toDomain())))
+        .map(option -> option.map(TodoEntity::toDomain))
+        .transactional(router.primary()), 1)
+        .map(option -> option.map(this::written));
+  }
+
+  /**
+   * Consecutive operations of the same kind are sent as one jdbc batch, and all the batches
+   * run in the same transaction.
+   */
+  @Override
+  public Task<Sequence<Option<TodoOperation>>> bulk(Sequence<TodoOperation> operations) {
+    return Task.task(() -> operations.map(this::assignId)).flatMap(assigned -> {
+      JdbcAction<Sequence<Option<TodoOperation>>> action = _ -> ImmutableList.empty();
+      for (var batch : batches(assigned)) {
+        action = action.flatMap(results -> execute(batch).map(results::appendAll));
+      }
+      return action.transactional(router.primary()).map(results -> {
+        for (var result : results) {
+          switch (result.getOrElseNull()) {
+            case TodoOperation.Create(var todo) -> written(todo);
+            case TodoOperation.Update(var todo) -> written(todo);
+            case TodoOperation.Delete(var id) -> deleted(id.value());
+            case null -> {}
           }
-          return PureDBC.pure(Option.<Todo>none());
-        }).safeRunIO(dataSource);
+        }
+        return results;
+      });
+    });
   }
 
   @Override
   public Task<Unit> deleteAll() {
-    return dao.deleteAll().safeRunIO(dataSource);
+    return dao.deleteAll().safeRunIO(router.primary()).map(unit -> {
+      router.writtenAll();
+      return unit;
+    });
   }
 
   @Override
-  public Task<Unit> delete(Id id) {
-    return dao.delete(id.value()).safeRunIO(dataSource);
+  public Task<Boolean> delete(Id id) {
+    return dao.delete(id.value()).safeRunIO(router.primary()).map(removed -> {
+      deleted(id.value());
+      return removed;
+    });
+  }
+
+  private JdbcAction<ImmutableList<Option<TodoOperation>>> execute(List<TodoOperation> batch) {
+    return switch (batch.getFirst()) {
+      case TodoOperation.Create _ -> {
+        var todos = batch.stream().map(TodoOperation.Create.class::cast).map(TodoOperation.Create::todo).toList();
+        yield dao.insertBatch(todos.stream().map(TodoEntity::fromDomain).toList())
+            .map(_ -> ImmutableList.from(batch.stream().<Option<TodoOperation>>map(Option::some).toList()));
+      }
+      case TodoOperation.Update _ -> {
+        var todos = batch.stream().map(TodoOperation.Update.class::cast).map(TodoOperation.Update::todo).toList();
+        yield dao.updateBatch(todos.stream().map(TodoEntity::fromDomain).toList()).map(found -> {
+          var results = new ArrayList<Option<TodoOperation>>(batch.size());
+          for (int i = 0; i < todos.size(); i++) {
+            results.add(found.get(i) ? Option.some(new TodoOperation.Update(todos.get(i))) : Option.none());
+          }
+          return ImmutableList.from(results);
+        });
+      }
+      case TodoOperation.Delete _ -> {
+        var ids = batch.stream().map(TodoOperation.Delete.class::cast).map(TodoOperation.Delete::id).toList();
+        yield dao.deleteBatch(ids.stream().map(id -> (long) id.value()).toList()).map(found -> {
+          var results = new ArrayList<Option<TodoOperation>>(batch.size());
+          for (int i = 0; i < ids.size(); i++) {
+            results.add(found.get(i) ? Option.some(new TodoOperation.Delete(ids.get(i))) : Option.none());
+          }
+          return ImmutableList.from(results);
+        });
+      }
+    };
+  }
+
+  private Task<DataSource> readingAll() {
+    return Task.task(router::readAll);
+  }
+
+  private Todo written(Todo todo) {
+    router.written(todo.getId());
+    return todo;
+  }
+
+  private void deleted(int id) {
+    router.written(id);
+  }
+
+  /**
+   * Runs the transaction again when another writer changed the row in between, up to
+   * {@link #MAX_ATTEMPTS} times, then the conflict is returned to the caller.
+   */
+  private static <T> Task<T> retrying(Task<T> transaction, int attempt) {
+    return transaction.foldM(
+        error -> error instanceof ConcurrentModificationException && attempt < MAX_ATTEMPTS
+            ? retrying(transaction, attempt + 1) : Task.<T>raiseError(error),
+        Task::pure);
+  }
+
+  private TodoOperation assignId(TodoOperation operation) {
+    return operation instanceof TodoOperation.Create(var todo)
+        ? new TodoOperation.Create(todo.withId(ids.nextId())) : operation;
+  }
+
+  private static List<List<TodoOperation>> batches(Sequence<TodoOperation> operations) {
+    var batches = new ArrayList<List<TodoOperation>>();
+    var current = new ArrayList<TodoOperation>();
+    for (var operation : operations) {
+      if (!current.isEmpty() && current.getFirst().getClass() != operation.getClass()) {
+        batches.add(List.copyOf(current));
+        current.clear();
+      }
+      current.add(operation);
+    }
+    if (!current.isEmpty()) {
+      batches.add(List.copyOf(current));
+    }
+    return batches;
   }
 }
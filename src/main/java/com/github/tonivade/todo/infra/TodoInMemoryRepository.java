@@ -6,9 +6,14 @@ package com.github.tonivade.todo.infra;
 
 import static com.github.tonivade.purefun.effect.Task.exec;
 import static com.github.tonivade.purefun.effect.Task.task;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.core.Consumer1;
 import com.github.tonivade.purefun.core.Unit;
 import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.data.Sequence;
@@ -17,13 +22,55 @@ import com.github.tonivade.purefun.type.Option;
 import com.github.tonivade.purefun.typeclasses.Instances;
 import com.github.tonivade.purefun.typeclasses.Monad;
 import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.TitleIndex;
 import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoQuery;
 import com.github.tonivade.todo.domain.TodoRepository;
 
-public final class TodoInMemoryRepository implements TodoRepository<Task<?>> {
+/**
+ * Writes of different todos run in parallel, only writes of the same id are serialized, so
+ * the store and the indexes are always updated together for each todo. Ids come from an
+ * atomic counter, and delete all waits for every other write. With a journal, a change is
+ * applied only once it's durable.
+ */
+public final class TodoInMemoryRepository implements TodoRepository<Task<?>>, AutoCloseable {
+
+  private static final int CONCURRENCY = 16;
+  private static final int STRIPES = 64;
 
   private final AtomicInteger counter = new AtomicInteger();
-  private final Map<Integer, Todo> map = new ConcurrentHashMap<>();
+  private final IdGenerator ids = IdGenerator.sequential(counter);
+  private final TodoStore store = new TodoStore(CONCURRENCY);
+  private final TodoIndex index = new TodoIndex();
+  private final TitleIndex titles = new TitleIndex();
+  private final IdLocks locks = new IdLocks(STRIPES);
+  private final @Nullable TodoJournal journal;
+
+  public TodoInMemoryRepository() {
+    this.journal = null;
+  }
+
+  /**
+   * Durable repository, every change is logged to the journal in the directory before
+   * returning, and a snapshot is written periodically.
+   */
+  public TodoInMemoryRepository(Path directory, Duration snapshotInterval) {
+    var journal = new TodoJournal(directory, store, counter);
+    store.forEach(todo -> {
+      index.add(todo);
+      titles.put(todo.getId(), todo.getTitle());
+    });
+    journal.scheduleSnapshots(snapshotInterval);
+    this.journal = journal;
+  }
+
+  /**
+   * Approximate memory used by the store for each todo, including the free slots of the
+   * tables and the title heaps.
+   */
+  public long bytesPerTodo() {
+    return store.bytesPerTodo();
+  }
 
   @Override
   public Monad<Task<?>> monad() {
@@ -32,42 +79,137 @@ public final class TodoInMemoryRepository implements TodoRepository<Task<?>> {
 
   @Override
   public Task<Todo> create(Todo todo) {
-    return task(() -> {
-      var created = todo.withId(counter.incrementAndGet());
-      map.put(created.getId(), created);
+    return task(ids::nextId).map(todo::withId).flatMap(created -> locks.guard(created.getId(), task(() -> {
+      write(new TodoJournal.Entry.Put(created), () -> {
+        store.put(created);
+        index.add(created);
+        titles.put(created.getId(), created.getTitle());
+      });
       return created;
-    });
+    })));
   }
 
   @Override
   public Task<Sequence<Todo>> findAll() {
-    return task(() -> ImmutableList.from(map.values()));
+    return task(() -> {
+      var list = new ArrayList<Todo>(store.size());
+      store.forEach(list::add);
+      return ImmutableList.from(list);
+    });
   }
 
   @Override
-  public Task<Option<Todo>> find(Id id) {
-    return task(() -> Option.of(() -> map.get(id.value())));
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return task(() -> {
+      var list = new ArrayList<Todo>(limit);
+      for (int id : store.idsAfter(after.map(Id::value).getOrElse(0), limit)) {
+        var todo = store.get(id);
+        if (todo.isPresent()) {
+          list.add(todo.getOrElseThrow());
+        }
+      }
+      return ImmutableList.from(list);
+    });
   }
 
   @Override
-  public Task<Option<Todo>> update(Todo todo) {
+  public Task<Sequence<Todo>> findBy(TodoQuery query) {
     return task(() -> {
-      Todo existing = map.get(todo.getId());
-      if (existing != null) {
-        map.put(todo.getId(), todo);
-        return Option.of(todo);
+      var list = new ArrayList<Todo>();
+      index.ids(query).forEach(id -> {
+        var todo = store.get(id);
+        if (todo.isPresent() && query.matches(todo.getOrElseThrow())) {
+          list.add(todo.getOrElseThrow());
+        }
+      });
+      return ImmutableList.from(list);
+    });
+  }
+
+  @Override
+  public Task<Sequence<Todo>> search(String query, int limit) {
+    return task(() -> {
+      var list = new ArrayList<Todo>(limit);
+      for (int id : titles.search(query, limit)) {
+        var todo = store.get(id);
+        if (todo.isPresent()) {
+          list.add(todo.getOrElseThrow());
+        }
       }
-      return Option.none();
+      return ImmutableList.from(list);
     });
   }
 
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    return exec(() -> store.forEach(consumer));
+  }
+
+  @Override
+  public Task<Option<Todo>> find(Id id) {
+    return task(() -> store.get(id.value()));
+  }
+
+  @Override
+  public Task<Option<Todo>> update(Todo todo) {
+    return locks.guard(todo.getId(), task(() -> {
+      var current = store.get(todo.getId());
+      if (current.isEmpty()) {
+        return Option.none();
+      }
+      write(new TodoJournal.Entry.Put(todo), () -> {
+        store.replace(todo);
+        index.remove(current.getOrElseThrow());
+        index.add(todo);
+        titles.replace(todo.getId(), current.getOrElseThrow().getTitle(), todo.getTitle());
+      });
+      return Option.some(todo);
+    }));
+  }
+
   @Override
   public Task<Unit> deleteAll() {
-    return exec(map::clear);
+    return locks.guardAll(exec(() -> write(new TodoJournal.Entry.Clear(), () -> {
+      store.clear();
+      index.clear();
+      titles.clear();
+    })));
+  }
+
+  @Override
+  public Task<Boolean> delete(Id id) {
+    return locks.guard(id.value(), task(() -> {
+      var current = store.get(id.value());
+      if (current.isEmpty()) {
+        return false;
+      }
+      write(new TodoJournal.Entry.Delete(id.value()), () -> {
+        store.remove(id.value());
+        index.remove(current.getOrElseThrow());
+        titles.remove(id.value(), current.getOrElseThrow().getTitle());
+      });
+      return true;
+    }));
   }
 
   @Override
-  public Task<Unit> delete(Id id) {
-    return exec(() -> map.remove(id.value()));
+  public void close() {
+    var journal = this.journal;
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  /**
+   * The todo can be read as it was until the change is applied, the caller holds the lock of
+   * its id, so nobody else can change it in between.
+   */
+  private void write(TodoJournal.Entry entry, Runnable apply) {
+    var journal = this.journal;
+    if (journal != null) {
+      journal.append(entry, apply);
+    } else {
+      apply.run();
+    }
   }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoQuery;
+
+/**
+ * Secondary indexes of the in-memory repository. For each state there is a sorted set of ids
+ * and a sorted set of keys by order, where the key packs the order, with the todos without
+ * order at the end, and the id. The order takes the 32 bits above the 31 bits of the id, so
+ * the key is never negative. The greatest order shares its position with the previous one,
+ * to leave the last one for the todos without order. This way a filtered or sorted read only
+ * walks the todos that are part of the result. Callers must serialize the updates of the same
+ * todo, reads are lock free.
+ */
+final class TodoIndex {
+
+  private static final long NO_ORDER = 0xffffffffL;
+  private static final long ID_MASK = 0x7fffffffL;
+  private static final long END = Long.MAX_VALUE;
+
+  private final NavigableSet<Long> active = new ConcurrentSkipListSet<>();
+  private final NavigableSet<Long> completed = new ConcurrentSkipListSet<>();
+  private final NavigableSet<Long> activeByOrder = new ConcurrentSkipListSet<>();
+  private final NavigableSet<Long> completedByOrder = new ConcurrentSkipListSet<>();
+
+  void add(Todo todo) {
+    byId(todo.isCompleted()).add((long) todo.getId());
+    byOrder(todo.isCompleted()).add(key(todo));
+  }
+
+  void remove(Todo todo) {
+    byId(todo.isCompleted()).remove((long) todo.getId());
+    byOrder(todo.isCompleted()).remove(key(todo));
+  }
+
+  void clear() {
+    active.clear();
+    completed.clear();
+    activeByOrder.clear();
+    completedByOrder.clear();
+  }
+
+  /**
+   * Ids of the todos that match the query, in the order of the query.
+   */
+  IntStream ids(TodoQuery query) {
+    var byOrder = query.sort() == TodoQuery.Sort.ORDER;
+    LongStream keys;
+    if (query.completed().isPresent()) {
+      boolean state = query.completed().getOrElseThrow();
+      keys = (byOrder ? byOrder(state) : byId(state)).stream().mapToLong(Long::longValue);
+    } else {
+      keys = byOrder ? merge(activeByOrder, completedByOrder) : merge(active, completed);
+    }
+    return keys.mapToInt(key -> (int) (key & ID_MASK));
+  }
+
+  private NavigableSet<Long> byId(boolean state) {
+    return state ? completed : active;
+  }
+
+  private NavigableSet<Long> byOrder(boolean state) {
+    return state ? completedByOrder : activeByOrder;
+  }
+
+  private static long key(Todo todo) {
+    return key(todo.getOrder(), todo.getId());
+  }
+
+  static long key(@Nullable Integer order, int id) {
+    long position = order != null ? Math.min((long) order - Integer.MIN_VALUE, NO_ORDER - 1) : NO_ORDER;
+    return position << 31 | id;
+  }
+
+  private static LongStream merge(NavigableSet<Long> left, NavigableSet<Long> right) {
+    var result = LongStream.builder();
+    var leftIterator = left.iterator();
+    var rightIterator = right.iterator();
+    long a = leftIterator.hasNext() ? leftIterator.next() : END;
+    long b = rightIterator.hasNext() ? rightIterator.next() : END;
+    while (a != END || b != END) {
+      if (a <= b) {
+        result.add(a);
+        a = leftIterator.hasNext() ? leftIterator.next() : END;
+      } else {
+        result.add(b);
+        b = rightIterator.hasNext() ? rightIterator.next() : END;
+      }
+    }
+    return result.build();
+  }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkNonNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.tonivade.todo.domain.Todo;
+
+/**
+ * Append only log of the changes of a {@link TodoStore}, with group commit and snapshots.
+ *
+ * <p>Changes are queued, then a single writer thread appends everything queued so far and
+ * calls fsync once for the whole batch, so concurrent writers share the cost of the sync.
+ * Only then the changes of the batch are applied, by the writer thread in the order they were
+ * logged, and the callers are released. Nobody reads a change that could still be lost, and
+ * a change that fails to sync is never applied.</p>
+ *
+ * <p>A snapshot rotates the log to a new generation, dumps the store to
+ * {@code snapshot-<generation>.bin} and removes the older files. The store may change while it
+ * is dumped, but every change is a whole todo, a delete or a clear, so replaying the log of
+ * the new generation on top of the snapshot always gives the right state. On startup the
+ * latest snapshot is loaded and the following logs are replayed, stopping at the first
+ * truncated or corrupted record.</p>
+ *
+ * <pre>
+ * record: length int | crc32c int | type byte | id int | order int | flags byte | title utf-8
+ * </pre>
+ */
+final class TodoJournal implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TodoJournal.class);
+
+  private static final String LOG = "journal-";
+  private static final String SNAPSHOT = "snapshot-";
+  private static final int MAX_BATCH = 1024;
+  private static final int HEADER = 8;
+  private static final int FIXED = 10;
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte CLEAR = 3;
+  private static final byte COUNTER = 4;
+
+  private static final byte COMPLETED = 1;
+  private static final byte HAS_ORDER = 2;
+
+  sealed interface Entry {
+    record Put(Todo todo) implements Entry {}
+    record Delete(int id) implements Entry {}
+    record Clear() implements Entry {}
+    record Counter(int value) implements Entry {}
+  }
+
+  private final Path directory;
+  private final TodoStore store;
+  private final AtomicInteger counter;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final AtomicLong appended = new AtomicLong();
+  private final Thread writer;
+  private final ScheduledExecutorService scheduler;
+
+  private FileChannel channel;
+  private long generation;
+  private long snapshotted;
+  private volatile boolean running = true;
+
+  TodoJournal(Path directory, TodoStore store, AtomicInteger counter) {
+    this.directory = checkNonNull(directory);
+    this.store = checkNonNull(store);
+    this.counter = checkNonNull(counter);
+    try {
+      Files.createDirectories(directory);
+      this.generation = recover() + 1;
+      this.channel = open(generation);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.writer = Thread.ofPlatform().name("journal").daemon().start(this::run);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("journal-snapshot").daemon().factory());
+  }
+
+  void scheduleSnapshots(Duration interval) {
+    scheduler.scheduleWithFixedDelay(this::snapshotIfChanged, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Logs the entry and applies the change once it's durable, returning after that. Callers
+   * must serialize the changes of the same todo. Fails right away if the journal is closed.
+   */
+  void append(Entry entry, Runnable apply) {
+    var pending = Pending.record(encode(entry), apply);
+    lock.lock();
+    try {
+      checkRunning();
+      queue.add(pending);
+    } finally {
+      lock.unlock();
+    }
+    pending.await();
+    appended.incrementAndGet();
+  }
+
+  void snapshot() {
+    Pending rotate;
+    int current;
+    lock.lock();
+    try {
+      checkRunning();
+      current = counter.get();
+      rotate = Pending.rotate(++generation);
+      queue.add(rotate);
+    } finally {
+      lock.unlock();
+    }
+    rotate.await();
+    try {
+      var file = directory.resolve(SNAPSHOT + rotate.generation + ".bin");
+      var temp = directory.resolve(SNAPSHOT + rotate.generation + ".tmp");
+      try (var target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+           var output = new BufferedOutputStream(Channels.newOutputStream(target))) {
+        write(output, new Entry.Counter(current));
+        store.forEach(todo -> write(output, new Entry.Put(todo)));
+        output.flush();
+        target.force(true);
+      }
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+      for (var older : files(SNAPSHOT, ".bin")) {
+        if (older < rotate.generation) {
+          Files.deleteIfExists(directory.resolve(SNAPSHOT + older + ".bin"));
+        }
+      }
+      for (var older : files(LOG, ".log")) {
+        if (older < rotate.generation) {
+          Files.deleteIfExists(directory.resolve(LOG + older + ".log"));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    lock.lock();
+    try {
+      running = false;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      writer.join();
+      channel.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void checkRunning() {
+    if (!running) {
+      throw new IllegalStateException("journal is closed");
+    }
+  }
+
+  private void snapshotIfChanged() {
+    long current = appended.get();
+    if (current != snapshotted) {
+      try {
+        snapshot();
+        snapshotted = current;
+      } catch (RuntimeException e) {
+        LOGGER.error("error writing snapshot", e);
+      }
+    }
+  }
+
+  private void run() {
+    var batch = new ArrayList<Pending>(MAX_BATCH);
+    while (running || !queue.isEmpty()) {
+      try {
+        var first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, MAX_BATCH - 1);
+        process(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void process(List<Pending> batch) {
+    var waiting = new ArrayList<Pending>(batch.size());
+    for (var pending : batch) {
+      if (!pending.rotate) {
+        waiting.add(pending);
+        continue;
+      }
+      flush(waiting);
+      try {
+        channel.close();
+        channel = open(pending.generation);
+        pending.done.complete(null);
+      } catch (IOException e) {
+        pending.done.completeExceptionally(e);
+      }
+    }
+    flush(waiting);
+  }
+
+  private void flush(List<Pending> waiting) {
+    if (waiting.isEmpty()) {
+      return;
+    }
+    long position = -1;
+    try {
+      position = channel.size();
+      int size = 0;
+      for (var pending : waiting) {
+        size += pending.record.length;
+      }
+      var buffer = ByteBuffer.allocate(size);
+      for (var pending : waiting) {
+        buffer.put(pending.record);
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      truncate(position);
+      waiting.forEach(pending -> pending.done.completeExceptionally(e));
+      waiting.clear();
+      return;
+    }
+    for (var pending : waiting) {
+      try {
+        pending.apply.run();
+        pending.done.complete(null);
+      } catch (RuntimeException e) {
+        pending.done.completeExceptionally(e);
+      }
+    }
+    waiting.clear();
+  }
+
+  /**
+   * Removes what was written of a batch that failed, so the next batches are not logged after
+   * a broken record, that would stop the replay before them.
+   */
+  private void truncate(long position) {
+    if (position < 0) {
+      return;
+    }
+    try {
+      channel.truncate(position);
+    } catch (IOException e) {
+      LOGGER.error("error truncating the journal", e);
+    }
+  }
+
+  /**
+   * Returns the last generation found in the directory, or zero if it is empty.
+   */
+  private long recover() throws IOException {
+    var snapshots = files(SNAPSHOT, ".bin");
+    var logs = files(LOG, ".log");
+    long from = snapshots.isEmpty() ? 0 : snapshots.getLast();
+    if (from > 0) {
+      replay(directory.resolve(SNAPSHOT + from + ".bin"));
+    }
+    long last = from;
+    for (var log : logs) {
+      if (log >= from) {
+        replay(directory.resolve(LOG + log + ".log"));
+      }
+      last = Math.max(last, log);
+    }
+    return last;
+  }
+
+  private void replay(Path file) throws IOException {
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      while (true) {
+        var entry = read(input);
+        if (entry == null) {
+          return;
+        }
+        apply(entry);
+      }
+    }
+  }
+
+  private void apply(Entry entry) {
+    switch (entry) {
+      case Entry.Put(var todo) -> {
+        store.put(todo);
+        counter.accumulateAndGet(todo.getId(), Math::max);
+      }
+      case Entry.Delete(var id) -> store.remove(id);
+      case Entry.Clear() -> store.clear();
+      case Entry.Counter(var value) -> counter.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  private List<Long> files(String prefix, String suffix) throws IOException {
+    try (Stream<Path> list = Files.list(directory)) {
+      return list.map(path -> path.getFileName().toString())
+          .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+          .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private FileChannel open(long generation) throws IOException {
+    return FileChannel.open(directory.resolve(LOG + generation + ".log"),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private static void write(OutputStream output, Entry entry) {
+    try {
+      output.write(encode(entry));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] encode(Entry entry) {
+    var title = entry instanceof Entry.Put(var todo) ? todo.getTitle().getBytes(StandardCharsets.UTF_8) : new byte[0];
+    var buffer = ByteBuffer.allocate(HEADER + FIXED + title.length);
+    buffer.position(HEADER);
+    switch (entry) {
+      case Entry.Put(var todo) -> {
+        Integer order = todo.getOrder();
+        buffer.put(PUT).putInt(todo.getId()).putInt(order != null ? order : 0)
+          .put((byte) ((todo.isCompleted() ? COMPLETED : 0) | (order != null ? HAS_ORDER : 0)));
+      }
+      case Entry.Delete(var id) -> buffer.put(DELETE).putInt(id).putInt(0).put((byte) 0);
+      case Entry.Clear() -> buffer.put(CLEAR).putInt(0).putInt(0).put((byte) 0);
+      case Entry.Counter(var value) -> buffer.put(COUNTER).putInt(value).putInt(0).put((byte) 0);
+    }
+    buffer.put(title);
+    var crc = new CRC32C();
+    crc.update(buffer.array(), HEADER, FIXED + title.length);
+    buffer.putInt(0, FIXED + title.length).putInt(4, (int) crc.getValue());
+    return buffer.array();
+  }
+
+  @Nullable
+  private static Entry read(DataInputStream input) throws IOException {
+    try {
+      int length = input.readInt();
+      int checksum = input.readInt();
+      if (length < FIXED) {
+        return null;
+      }
+      var payload = input.readNBytes(length);
+      if (payload.length < length) {
+        return null;
+      }
+      var crc = new CRC32C();
+      crc.update(payload);
+      if ((int) crc.getValue() != checksum) {
+        return null;
+      }
+      return decode(ByteBuffer.wrap(payload));
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Entry decode(ByteBuffer payload) {
+    byte type = payload.get();
+    int id = payload.getInt();
+    int order = payload.getInt();
+    byte flags = payload.get();
+    return switch (type) {
+      case PUT -> {
+        var title = new String(payload.array(), FIXED, payload.remaining(), StandardCharsets.UTF_8);
+        yield new Entry.Put(Todo.create(id, title, (flags & HAS_ORDER) != 0 ? order : null, (flags & COMPLETED) != 0));
+      }
+      case DELETE -> new Entry.Delete(id);
+      case CLEAR -> new Entry.Clear();
+      case COUNTER -> new Entry.Counter(id);
+      default -> null;
+    };
+  }
+
+  private static final class Pending {
+
+    private final byte[] record;
+    private final Runnable apply;
+    private final long generation;
+    private final boolean rotate;
+    private final CompletableFuture<@Nullable Void> done = new CompletableFuture<>();
+
+    private Pending(byte[] record, Runnable apply, long generation, boolean rotate) {
+      this.record = record;
+      this.apply = apply;
+      this.generation = generation;
+      this.rotate = rotate;
+    }
+
+    static Pending record(byte[] record, Runnable apply) {
+      return new Pending(record, apply, 0, false);
+    }
+
+    static Pending rotate(long generation) {
+      return new Pending(new byte[0], () -> {}, generation, true);
+    }
+
+    void await() {
+      try {
+        done.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof IOException cause) {
+          throw new UncheckedIOException(cause);
+        }
+        throw e;
+      }
+    }
+  }
+}
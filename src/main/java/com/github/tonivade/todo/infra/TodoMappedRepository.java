@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.effect.Task.exec;
+import static com.github.tonivade.purefun.effect.Task.task;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.core.Unit;
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.purefun.typeclasses.Instances;
+import com.github.tonivade.purefun.typeclasses.Monad;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoRepository;
+
+/**
+ * Repository that keeps the todos in two memory mapped files, so the data survives restarts
+ * and is available as soon as the files are mapped, without replaying anything.
+ *
+ * <p>{@code todo.slots} has a header followed by one fixed size record per id, the record of
+ * id {@code n} is the slot {@code n - 1}. Deleted slots are chained in a free list and reused
+ * by the next creates. {@code todo.titles} is a heap with the utf-8 encoded titles. The bytes
+ * of the titles replaced or deleted are counted as garbage, and when they are more than half
+ * of the heap the titles are compacted to the start of it.</p>
+ *
+ * <p>Changes are written to the mapped memory, and the operating system writes them to the
+ * files when it wants. They survive a crash of the process, but only {@link #close()} forces
+ * them to disk, so a crash of the machine can lose the last changes, or leave them torn.</p>
+ *
+ * <pre>
+ * header: magic int | unused int | next slot long | free head long | count long | garbage long
+ * record: flags int | order int | title offset long (next free slot when deleted) | title length int | unused int
+ * </pre>
+ */
+public final class TodoMappedRepository implements TodoRepository<Task<?>>, AutoCloseable {
+
+  private static final int MAGIC = 0x746f646f;
+  private static final long HEADER_SIZE = 64;
+  private static final long RECORD_SIZE = 24;
+
+  private static final long MAGIC_OFFSET = 0;
+  private static final long NEXT_SLOT_OFFSET = 8;
+  private static final long FREE_HEAD_OFFSET = 16;
+  private static final long COUNT_OFFSET = 24;
+  private static final long GARBAGE_OFFSET = 32;
+  private static final long HEAP_SIZE_OFFSET = 0;
+
+  private static final long FLAGS = 0;
+  private static final long ORDER = 4;
+  private static final long TITLE_OFFSET = 8;
+  private static final long TITLE_LENGTH = 16;
+
+  private static final int USED = 1;
+  private static final int COMPLETED = 2;
+  private static final long NO_SLOT = -1;
+  private static final long INITIAL_SIZE = 1 << 20;
+  private static final long MIN_COMPACT_SIZE = 1 << 16;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final FileChannel slotsChannel;
+  private final FileChannel titlesChannel;
+
+  private Arena arena;
+  private MemorySegment slots;
+  private MemorySegment titles;
+
+  public TodoMappedRepository(Path directory) {
+    try {
+      Files.createDirectories(directory);
+      this.slotsChannel = open(directory.resolve("todo.slots"));
+      this.titlesChannel = open(directory.resolve("todo.titles"));
+      this.arena = Arena.ofShared();
+      this.slots = map(slotsChannel, Math.max(slotsChannel.size(), INITIAL_SIZE));
+      this.titles = map(titlesChannel, Math.max(titlesChannel.size(), INITIAL_SIZE));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (slots.get(JAVA_INT, MAGIC_OFFSET) != MAGIC) {
+      reset();
+    }
+  }
+
+  @Override
+  public Monad<Task<?>> monad() {
+    return Instances.monad();
+  }
+
+  @Override
+  public Task<Todo> create(Todo todo) {
+    return task(() -> write(() -> {
+      long slot = allocate();
+      var created = todo.withId(Math.toIntExact(slot + 1));
+      store(slot, created);
+      slots.set(JAVA_LONG, COUNT_OFFSET, slots.get(JAVA_LONG, COUNT_OFFSET) + 1);
+      return created;
+    }));
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findAll() {
+    return task(() -> read(() -> {
+      var list = new ArrayList<Todo>(Math.toIntExact(slots.get(JAVA_LONG, COUNT_OFFSET)));
+      scan(0, Integer.MAX_VALUE, list::add);
+      return ImmutableList.from(list);
+    }));
+  }
+
+  @Override
+  public Task<Sequence<Todo>> findPage(Option<Id> after, int limit) {
+    return task(() -> read(() -> {
+      var list = new ArrayList<Todo>(limit);
+      scan(after.map(Id::value).getOrElse(0), limit, list::add);
+      return ImmutableList.from(list);
+    }));
+  }
+
+  @Override
+  public Task<Unit> forEach(Consumer1<Todo> consumer) {
+    return exec(() -> read(() -> {
+      scan(0, Integer.MAX_VALUE, consumer);
+      return Unit.unit();
+    }));
+  }
+
+  @Override
+  public Task<Option<Todo>> find(Id id) {
+    return task(() -> read(() -> isUsed(id.value() - 1L) ? Option.some(load(id.value() - 1L)) : Option.none()));
+  }
+
+  @Override
+  public Task<Option<Todo>> update(Todo todo) {
+    return task(() -> write(() -> {
+      long slot = todo.getId() - 1L;
+      if (!isUsed(slot)) {
+        return Option.none();
+      }
+      store(slot, todo);
+      return Option.some(todo);
+    }));
+  }
+
+  @Override
+  public Task<Unit> deleteAll() {
+    return exec(() -> write(() -> {
+      reset();
+      return Unit.unit();
+    }));
+  }
+
+  @Override
+  public Task<Boolean> delete(Id id) {
+    return task(() -> write(() -> {
+      long slot = id.value() - 1L;
+      if (!isUsed(slot)) {
+        return false;
+      }
+      long record = record(slot);
+      discard(slots.get(JAVA_INT, record + TITLE_LENGTH));
+      slots.set(JAVA_INT, record + FLAGS, 0);
+      slots.set(JAVA_LONG, record + TITLE_OFFSET, slots.get(JAVA_LONG, FREE_HEAD_OFFSET));
+      slots.set(JAVA_LONG, FREE_HEAD_OFFSET, slot);
+      slots.set(JAVA_LONG, COUNT_OFFSET, slots.get(JAVA_LONG, COUNT_OFFSET) - 1);
+      compactIfNeeded();
+      return true;
+    }));
+  }
+
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      slots.force();
+      titles.force();
+      arena.close();
+      slotsChannel.close();
+      titlesChannel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private interface Action<T> {
+    T run();
+  }
+
+  private <T> T read(Action<T> action) {
+    lock.readLock().lock();
+    try {
+      return action.run();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <T> T write(Action<T> action) {
+    lock.writeLock().lock();
+    try {
+      return action.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void reset() {
+    slots.set(JAVA_INT, MAGIC_OFFSET, MAGIC);
+    slots.set(JAVA_LONG, NEXT_SLOT_OFFSET, 0);
+    slots.set(JAVA_LONG, FREE_HEAD_OFFSET, NO_SLOT);
+    slots.set(JAVA_LONG, COUNT_OFFSET, 0);
+    slots.set(JAVA_LONG, GARBAGE_OFFSET, 0);
+    titles.set(JAVA_LONG, HEAP_SIZE_OFFSET, Long.BYTES);
+  }
+
+  private long allocate() {
+    long free = slots.get(JAVA_LONG, FREE_HEAD_OFFSET);
+    if (free != NO_SLOT) {
+      slots.set(JAVA_LONG, FREE_HEAD_OFFSET, slots.get(JAVA_LONG, record(free) + TITLE_OFFSET));
+      return free;
+    }
+    long slot = slots.get(JAVA_LONG, NEXT_SLOT_OFFSET);
+    ensureSlots(record(slot) + RECORD_SIZE);
+    slots.set(JAVA_LONG, NEXT_SLOT_OFFSET, slot + 1);
+    return slot;
+  }
+
+  /**
+   * Titles are appended to the heap, unless the new title fits in the place of the old one.
+   */
+  private void store(long slot, Todo todo) {
+    long record = record(slot);
+    var bytes = todo.getTitle().getBytes(StandardCharsets.UTF_8);
+    long offset;
+    boolean used = (slots.get(JAVA_INT, record + FLAGS) & USED) != 0;
+    int previous = used ? slots.get(JAVA_INT, record + TITLE_LENGTH) : 0;
+    if (used && bytes.length <= previous) {
+      offset = slots.get(JAVA_LONG, record + TITLE_OFFSET);
+      discard(previous - bytes.length);
+    } else {
+      discard(previous);
+      offset = titles.get(JAVA_LONG, HEAP_SIZE_OFFSET);
+      ensureTitles(offset + bytes.length);
+      titles.set(JAVA_LONG, HEAP_SIZE_OFFSET, offset + bytes.length);
+    }
+    MemorySegment.copy(bytes, 0, titles, JAVA_BYTE, offset, bytes.length);
+    slots.set(JAVA_LONG, record + TITLE_OFFSET, offset);
+    slots.set(JAVA_INT, record + TITLE_LENGTH, bytes.length);
+    slots.set(JAVA_INT, record + ORDER, todo.getOrder() != null ? todo.getOrder() : 0);
+    slots.set(JAVA_INT, record + FLAGS, USED | (todo.isCompleted() ? COMPLETED : 0));
+    compactIfNeeded();
+  }
+
+  private void discard(long bytes) {
+    slots.set(JAVA_LONG, GARBAGE_OFFSET, slots.get(JAVA_LONG, GARBAGE_OFFSET) + bytes);
+  }
+
+  private void compactIfNeeded() {
+    long size = titles.get(JAVA_LONG, HEAP_SIZE_OFFSET);
+    if (size > MIN_COMPACT_SIZE && slots.get(JAVA_LONG, GARBAGE_OFFSET) > size >> 1) {
+      compact();
+    }
+  }
+
+  /**
+   * Moves the titles of the used slots to the start of the heap, in the order they are in it,
+   * so every title moves down over garbage or over itself, never over another live title.
+   */
+  private void compact() {
+    var used = LongStream.range(0, slots.get(JAVA_LONG, NEXT_SLOT_OFFSET))
+        .filter(this::isUsed)
+        .boxed()
+        .sorted(Comparator.comparingLong(slot -> slots.get(JAVA_LONG, record(slot) + TITLE_OFFSET)))
+        .mapToLong(Long::longValue)
+        .toArray();
+    long position = Long.BYTES;
+    for (long slot : used) {
+      long record = record(slot);
+      long offset = slots.get(JAVA_LONG, record + TITLE_OFFSET);
+      int length = slots.get(JAVA_INT, record + TITLE_LENGTH);
+      MemorySegment.copy(titles, offset, titles, position, length);
+      slots.set(JAVA_LONG, record + TITLE_OFFSET, position);
+      position += length;
+    }
+    titles.set(JAVA_LONG, HEAP_SIZE_OFFSET, position);
+    slots.set(JAVA_LONG, GARBAGE_OFFSET, 0);
+  }
+
+  private Todo load(long slot) {
+    long record = record(slot);
+    int flags = slots.get(JAVA_INT, record + FLAGS);
+    int order = slots.get(JAVA_INT, record + ORDER);
+    var title = new String(
+        titles.asSlice(slots.get(JAVA_LONG, record + TITLE_OFFSET), slots.get(JAVA_INT, record + TITLE_LENGTH))
+          .toArray(JAVA_BYTE), StandardCharsets.UTF_8);
+    return Todo.create(Math.toIntExact(slot + 1), title, order == 0 ? null : order, (flags & COMPLETED) != 0);
+  }
+
+  private void scan(int after, int limit, Consumer1<Todo> consumer) {
+    long next = slots.get(JAVA_LONG, NEXT_SLOT_OFFSET);
+    int count = 0;
+    for (long slot = after; slot < next && count < limit; slot++) {
+      if (isUsed(slot)) {
+        consumer.accept(load(slot));
+        count++;
+      }
+    }
+  }
+
+  private boolean isUsed(long slot) {
+    return slot >= 0 && slot < slots.get(JAVA_LONG, NEXT_SLOT_OFFSET)
+        && (slots.get(JAVA_INT, record(slot) + FLAGS) & USED) != 0;
+  }
+
+  private void ensureSlots(long size) {
+    if (size > slots.byteSize()) {
+      remap(size, titles.byteSize());
+    }
+  }
+
+  private void ensureTitles(long size) {
+    if (size > titles.byteSize()) {
+      remap(slots.byteSize(), size);
+    }
+  }
+
+  /**
+   * Grows the files doubling their size. Only called with the write lock held, so nobody
+   * is reading the old mappings when they are released.
+   */
+  private void remap(long slotsSize, long titlesSize) {
+    try {
+      var old = arena;
+      arena = Arena.ofShared();
+      slots = map(slotsChannel, Math.max(slotsSize, slots.byteSize() << 1));
+      titles = map(titlesChannel, Math.max(titlesSize, titles.byteSize() << 1));
+      old.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private MemorySegment map(FileChannel channel, long size) throws IOException {
+    return channel.map(MapMode.READ_WRITE, 0, size, arena);
+  }
+
+  private static long record(long slot) {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+
+  private static FileChannel open(Path path) throws IOException {
+    return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static com.github.tonivade.purefun.core.Precondition.checkPositive;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jspecify.annotations.Nullable;
+
+import com.github.tonivade.purefun.core.Consumer1;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+/**
+ * Compact store of todos keyed by a primitive int id. Todos are split in stripes, each one
+ * guarded by its own lock and backed by an open addressing table with columnar arrays for
+ * the order and the completed flag, and a shared byte heap with the utf-8 encoded titles.
+ * Domain {@link Todo} objects are only built when they are read.
+ */
+final class TodoStore {
+
+  private static final int NO_ORDER = 0;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Segment[] segments;
+  private final int shift;
+
+  TodoStore(int concurrency) {
+    checkPositive(concurrency, "concurrency must be a positive value");
+    int size = Integer.highestOneBit(concurrency) == concurrency ? concurrency : Integer.highestOneBit(concurrency) << 1;
+    this.segments = new Segment[size];
+    this.shift = Integer.numberOfLeadingZeros(size) + 1;
+    for (int i = 0; i < size; i++) {
+      segments[i] = new Segment();
+    }
+  }
+
+  void put(Todo todo) {
+    segment(todo.getId()).put(todo.getId(), todo.getTitle(), todo.getOrder(), todo.isCompleted());
+  }
+
+  boolean replace(Todo todo) {
+    return segment(todo.getId()).replace(todo.getId(), todo.getTitle(), todo.getOrder(), todo.isCompleted());
+  }
+
+  Option<Todo> get(int id) {
+    return segment(id).get(id);
+  }
+
+  boolean remove(int id) {
+    return segment(id).remove(id);
+  }
+
+  void clear() {
+    for (var segment : segments) {
+      segment.clear();
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (var segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  void forEach(Consumer1<Todo> consumer) {
+    for (var segment : segments) {
+      segment.forEach(consumer);
+    }
+  }
+
+  /**
+   * Ids of the first todos with an id greater than {@code after}, in order. Only a heap of
+   * {@code limit} ids is kept while scanning, never the whole table.
+   */
+  int[] idsAfter(int after, int limit) {
+    var heap = new IdHeap(limit);
+    for (var segment : segments) {
+      segment.collect(after, heap);
+    }
+    return heap.sorted();
+  }
+
+  long bytesPerTodo() {
+    long bytes = 0;
+    for (var segment : segments) {
+      bytes += segment.bytes();
+    }
+    int size = size();
+    return size == 0 ? 0 : bytes / size;
+  }
+
+  /**
+   * Stripes use the high bits of the hash, slots inside a stripe the low ones.
+   */
+  private Segment segment(int id) {
+    return segments.length == 1 ? segments[0] : segments[mix(id) >>> shift];
+  }
+
+  private static int mix(int id) {
+    int hash = id * 0x9e3779b9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Segment {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] orders = new int[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private boolean[] completed = new boolean[INITIAL_CAPACITY];
+    private byte[] heap = new byte[INITIAL_CAPACITY * 16];
+    private int heapSize;
+    private int garbage;
+    private int size;
+
+    void put(int id, String title, @Nullable Integer order, boolean done) {
+      lock.writeLock().lock();
+      try {
+        int slot = find(id);
+        if (slot < 0) {
+          if ((size + 1) * 4 > ids.length * 3) {
+            resize(ids.length << 1);
+          }
+          slot = -find(id) - 1;
+          ids[slot] = id;
+          size++;
+        } else {
+          garbage += lengths[slot];
+        }
+        write(slot, title, order, done);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    boolean replace(int id, String title, @Nullable Integer order, boolean done) {
+      lock.writeLock().lock();
+      try {
+        int slot = find(id);
+        if (slot < 0) {
+          return false;
+        }
+        garbage += lengths[slot];
+        write(slot, title, order, done);
+        return true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    Option<Todo> get(int id) {
+      lock.readLock().lock();
+      try {
+        int slot = find(id);
+        return slot < 0 ? Option.none() : Option.some(read(slot));
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    boolean remove(int id) {
+      lock.writeLock().lock();
+      try {
+        int slot = find(id);
+        if (slot < 0) {
+          return false;
+        }
+        garbage += lengths[slot];
+        delete(slot);
+        size--;
+        return true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void clear() {
+      lock.writeLock().lock();
+      try {
+        Arrays.fill(ids, 0);
+        heapSize = 0;
+        garbage = 0;
+        size = 0;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    int size() {
+      lock.readLock().lock();
+      try {
+        return size;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void forEach(Consumer1<Todo> consumer) {
+      lock.readLock().lock();
+      try {
+        for (int slot = 0; slot < ids.length; slot++) {
+          if (ids[slot] != 0) {
+            consumer.accept(read(slot));
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void collect(int after, IdHeap heap) {
+      lock.readLock().lock();
+      try {
+        for (int id : ids) {
+          if (id > after) {
+            heap.offer(id);
+          }
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    long bytes() {
+      lock.readLock().lock();
+      try {
+        return ids.length * (4L + 4L + 4L + 4L + 1L) + heap.length;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Returns the slot of the id if present, or {@code -(insertion slot) - 1} if not.
+     */
+    private int find(int id) {
+      int mask = ids.length - 1;
+      int slot = mix(id) & mask;
+      while (ids[slot] != 0) {
+        if (ids[slot] == id) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -slot - 1;
+    }
+
+    private Todo read(int slot) {
+      var title = new String(heap, offsets[slot], lengths[slot], StandardCharsets.UTF_8);
+      int order = orders[slot];
+      return Todo.create(ids[slot], title, order == NO_ORDER ? null : order, completed[slot]);
+    }
+
+    private void write(int slot, String title, @Nullable Integer order, boolean done) {
+      var bytes = title.getBytes(StandardCharsets.UTF_8);
+      if (heapSize + bytes.length > heap.length) {
+        if (garbage > heapSize >> 1) {
+          lengths[slot] = 0;
+          compact();
+        }
+        if (heapSize + bytes.length > heap.length) {
+          heap = Arrays.copyOf(heap, Math.max(heap.length << 1, heapSize + bytes.length));
+        }
+      }
+      System.arraycopy(bytes, 0, heap, heapSize, bytes.length);
+      offsets[slot] = heapSize;
+      lengths[slot] = bytes.length;
+      heapSize += bytes.length;
+      orders[slot] = order != null ? order : NO_ORDER;
+      completed[slot] = done;
+    }
+
+    /**
+     * Backward shift deletion, so the table never needs tombstones.
+     */
+    private void delete(int slot) {
+      int mask = ids.length - 1;
+      int hole = slot;
+      int next = (hole + 1) & mask;
+      while (ids[next] != 0) {
+        int home = mix(ids[next]) & mask;
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          move(next, hole);
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      ids[hole] = 0;
+    }
+
+    private void move(int from, int to) {
+      ids[to] = ids[from];
+      orders[to] = orders[from];
+      offsets[to] = offsets[from];
+      lengths[to] = lengths[from];
+      completed[to] = completed[from];
+    }
+
+    private void resize(int capacity) {
+      var oldIds = ids;
+      var oldOrders = orders;
+      var oldOffsets = offsets;
+      var oldLengths = lengths;
+      var oldCompleted = completed;
+      ids = new int[capacity];
+      orders = new int[capacity];
+      offsets = new int[capacity];
+      lengths = new int[capacity];
+      completed = new boolean[capacity];
+      for (int i = 0; i < oldIds.length; i++) {
+        if (oldIds[i] != 0) {
+          int slot = -find(oldIds[i]) - 1;
+          ids[slot] = oldIds[i];
+          orders[slot] = oldOrders[i];
+          offsets[slot] = oldOffsets[i];
+          lengths[slot] = oldLengths[i];
+          completed[slot] = oldCompleted[i];
+        }
+      }
+    }
+
+    private void compact() {
+      var compacted = new byte[heap.length];
+      int position = 0;
+      for (int slot = 0; slot < ids.length; slot++) {
+        if (ids[slot] != 0) {
+          System.arraycopy(heap, offsets[slot], compacted, position, lengths[slot]);
+          offsets[slot] = position;
+          position += lengths[slot];
+        }
+      }
+      heap = compacted;
+      heapSize = position;
+      garbage = 0;
+    }
+  }
+
+  /**
+   * Bounded max heap of ints that keeps the smallest ids offered.
+   */
+  private static final class IdHeap {
+
+    private final int[] values;
+    private int size;
+
+    IdHeap(int limit) {
+      this.values = new int[limit];
+    }
+
+    void offer(int value) {
+      if (size < values.length) {
+        values[size] = value;
+        siftUp(size++);
+      } else if (size > 0 && value < values[0]) {
+        values[0] = value;
+        siftDown(0);
+      }
+    }
+
+    int[] sorted() {
+      var result = Arrays.copyOf(values, size);
+      Arrays.sort(result);
+      return result;
+    }
+
+    private void siftUp(int index) {
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (values[parent] >= values[index]) {
+          return;
+        }
+        swap(parent, index);
+        index = parent;
+      }
+    }
+
+    private void siftDown(int index) {
+      while (true) {
+        int left = (index << 1) + 1;
+        int right = left + 1;
+        int largest = index;
+        if (left < size && values[left] > values[largest]) {
+          largest = left;
+        }
+        if (right < size && values[right] > values[largest]) {
+          largest = right;
+        }
+        if (largest == index) {
+          return;
+        }
+        swap(index, largest);
+        index = largest;
+      }
+    }
+
+    private void swap(int i, int j) {
+      int tmp = values[i];
+      values[i] = values[j];
+      values[j] = tmp;
+    }
+  }
+}
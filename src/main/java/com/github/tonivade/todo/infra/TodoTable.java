@@ -15,6 +15,7 @@ public final class TodoTable implements Table4<Long, String, Integer, Boolean> {
   public final Field<String> TITLE = Field.of("title");
   public final Field<Integer> ORDER = Field.of("position");
   public final Field<Boolean> COMPLETED = Field.of("completed");
+  public final Field<Integer> VERSION = Field.of("version");
 
   @Override
   public String name() {
@@ -12,7 +12,9 @@ import static com.github.tonivade.purefun.type.Validation.valid;
 import static com.github.tonivade.todo.App.TODO;
 import static com.github.tonivade.zeromock.api.HttpStatus.BAD_REQUEST;
 import static com.github.tonivade.zeromock.api.HttpStatus.CREATED;
+import static com.github.tonivade.zeromock.api.HttpStatus.NOT_MODIFIED;
 import static com.github.tonivade.zeromock.api.HttpStatus.OK;
+import static com.github.tonivade.zeromock.api.HttpStatus.PRECONDITION_FAILED;
 import static com.github.tonivade.zeromock.api.Requests.delete;
 import static com.github.tonivade.zeromock.api.Requests.get;
 import static com.github.tonivade.zeromock.api.Requests.patch;
@@ -28,6 +30,7 @@ import com.github.tonivade.purefun.data.ImmutableList;
 import com.github.tonivade.purefun.effect.UIO;
 import com.github.tonivade.purejson.TypeToken;
 import com.github.tonivade.todo.app.TodoDTO;
+import com.github.tonivade.zeromock.api.Bytes;
 import com.github.tonivade.zeromock.api.HttpResponse;
 import com.github.tonivade.zeromock.api.HttpStatus;
 import com.github.tonivade.zeromock.api.HttpUIOService;
@@ -86,6 +89,46 @@ class EndToEndTest extends UIOTestSpec<String> {
             .flatMap(parseList()))
         .then(listContainsItems(TodoDTO::title, "asdfg", "qwert")),
 
+      it.should("return first page when limit is given")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.createNew("asdfg"))
+            .andThen(c.createNew("qwert"))
+            .andThen(c.getPage(1))
+            .flatMap(expects(OK))
+            .flatMap(parseList()))
+        .then(listContainsItems(TodoDTO::title, "asdfg")),
+
+      it.should("return completed items sorted by order")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.createNew("asdfg"))
+            .flatMap(parseItem())
+            .flatMap(item -> c.updateTitleOrderAndCompleted(item.id(), "asdfg", 2, true))
+            .andThen(c.createNew("qwert"))
+            .flatMap(parseItem())
+            .flatMap(item -> c.updateTitleOrderAndCompleted(item.id(), "qwert", 1, true))
+            .andThen(c.createNew("zxcvb"))
+            .andThen(c.getCompleted())
+            .flatMap(expects(OK))
+            .flatMap(parseList()))
+        .then(Validator.from(
+            list -> list.map(TodoDTO::title).equals(listOf("qwert", "asdfg")),
+            () -> "list is not filtered and sorted")),
+
+      it.should("create items in bulk")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.bulk(
+                """
+                [{"op":"create","todo":{"title":"asdfg"}},{"op":"create","todo":{"title":"qwert"}}]
+                """))
+            .flatMap(expects(OK))
+            .andThen(c.getAll())
+            .flatMap(expects(OK))
+            .flatMap(parseList()))
+        .then(listContainsItems(TodoDTO::title, "asdfg", "qwert")),
+
       it.should("update title")
         .given(todoClient)
         .whenK(c -> c.deleteAll()
@@ -132,6 +175,47 @@ class EndToEndTest extends UIOTestSpec<String> {
             .andThen(listContainsItems(TodoDTO::order, 3)
             .andThen(listContainsItems(TodoDTO::title, "qwert")))),
 
+      it.should("return not modified if the list did not change")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.createNew("asdfg"))
+            .andThen(c.getAll())
+            .flatMap(expects(OK))
+            .flatMap(response -> c.getAllIfNoneMatch(etag(response))))
+        .then(equalsTo(NOT_MODIFIED).compose(HttpResponse::status)),
+
+      it.should("fail to update if the etag does not match")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.createNew("asdfg"))
+            .flatMap(parseItem())
+            .flatMap(item -> c.updateTitleIfMatch(item.id(), "qwert", "\"0-0\"")))
+        .then(equalsTo(PRECONDITION_FAILED).compose(HttpResponse::status)),
+
+      it.should("fail to update any version of a todo that does not exist")
+        .given(todoClient)
+        .whenK(c -> c.deleteAll()
+            .andThen(c.updateTitleIfMatch(Integer.MAX_VALUE, "qwert", "*")))
+        .then(equalsTo(PRECONDITION_FAILED).compose(HttpResponse::status)),
+
+      it.should("send the changes made after a response without events")
+        .given(todoClient)
+        .whenK(c -> c.getChanges()
+            .flatMap(expects(OK))
+            .map(EndToEndTest::lastEventId)
+            .flatMap(id -> c.createNew("zxcvb").andThen(c.getChangesAfter(id)))
+            .flatMap(expects(OK))
+            .map(response -> Bytes.asString(response.body())))
+        .then(Validator.from(body -> body.contains("event: create") && body.contains("zxcvb"), () -> "no create event")),
+
+      it.should("count the calls of the reads")
+        .given(todoClient)
+        .whenK(c -> c.getAll()
+            .andThen(c.getStats())
+            .flatMap(expects(OK))
+            .map(response -> Bytes.asString(response.body())))
+        .then(Validator.from(body -> body.contains("\"calls\":"), () -> "no calls in stats")),
+
       it.should("fail if no title")
         .given(todoClient)
         .whenK(c -> c.deleteAll()
@@ -177,10 +261,34 @@ class EndToEndTest extends UIOTestSpec<String> {
       return client.request(delete(TODO));
     }
 
+    private UIO<HttpResponse> getStats() {
+      return client.request(get(TODO + "/_stats"));
+    }
+
+    private UIO<HttpResponse> getChanges() {
+      return client.request(get(TODO + "/_changes").withParam("timeout", "0"));
+    }
+
+    private UIO<HttpResponse> getChangesAfter(String id) {
+      return client.request(get(TODO + "/_changes").withHeader("Last-Event-ID", id).withParam("timeout", "0"));
+    }
+
     private UIO<HttpResponse> getAll() {
       return client.request(get(TODO));
     }
 
+    private UIO<HttpResponse> getAllIfNoneMatch(String etag) {
+      return client.request(get(TODO).withHeader("If-None-Match", etag));
+    }
+
+    private UIO<HttpResponse> getPage(int limit) {
+      return client.request(get(TODO).withParam("limit", String.valueOf(limit)));
+    }
+
+    private UIO<HttpResponse> getCompleted() {
+      return client.request(get(TODO).withParam("completed", "true").withParam("sort", "order"));
+    }
+
     private UIO<HttpResponse> createNew(String title) {
       return client.request(post(TODO)
         .withHeader(CONTENT_TYPE, APPLICATION_JSON)
@@ -190,6 +298,12 @@ class EndToEndTest extends UIOTestSpec<String> {
             """.formatted(title)));
     }
 
+    private UIO<HttpResponse> bulk(String operations) {
+      return client.request(post(TODO + "/_bulk")
+        .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+        .withBody(operations));
+    }
+
     private UIO<HttpResponse> createNew() {
       return client.request(post(TODO)
         .withHeader(CONTENT_TYPE, APPLICATION_JSON)
@@ -221,6 +335,16 @@ class EndToEndTest extends UIOTestSpec<String> {
             """.formatted(title)));
     }
 
+    private UIO<HttpResponse> updateTitleIfMatch(int id, String title, String etag) {
+      return client.request(patch(TODO + "/" + id)
+        .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+        .withHeader("If-Match", etag)
+        .withBody(
+            """
+            {"title": "%s"}
+            """.formatted(title)));
+    }
+
     private UIO<HttpResponse> updateOrder(int id, int order) {
       return client.request(patch(TODO + "/" + id)
         .withHeader(CONTENT_TYPE, APPLICATION_JSON)
@@ -245,6 +369,20 @@ class EndToEndTest extends UIOTestSpec<String> {
     }
   }
 
+  private static String etag(HttpResponse response) {
+    return response.headers().get("ETag").iterator().next();
+  }
+
+  private static String lastEventId(HttpResponse response) {
+    var id = "";
+    for (var line : Bytes.asString(response.body()).split("\n")) {
+      if (line.startsWith("id: ")) {
+        id = line.substring(4);
+      }
+    }
+    return id;
+  }
+
   private Function1<HttpResponse, UIO<ImmutableList<TodoDTO>>> parseList() {
     return UIOHttpClient.<ImmutableList<TodoDTO>>parse(listOfTodos);
   }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+
+class ChangeFeedTest {
+
+  private final ChangeFeed feed = new ChangeFeed(todo -> asBytes(todo.getTitle()), 4, 2, 1);
+
+  @Test
+  void subscribersReadFromTheirCursor() throws InterruptedException {
+    feed.publish(new TodoOperation.Create(Todo.create(1, "asdfg", null, false)));
+    feed.publish(new TodoOperation.Update(Todo.create(1, "qwert", null, false)));
+    feed.publish(new TodoOperation.Delete(new Id(1)));
+
+    var first = feed.poll(0, Duration.ZERO).getOrElseThrow();
+    var second = feed.poll(2, Duration.ZERO).getOrElseThrow();
+
+    assertThat(first).containsExactly(
+        new ChangeFeed.Event(1, ChangeFeed.CREATE, asBytes("asdfg")),
+        new ChangeFeed.Event(2, ChangeFeed.UPDATE, asBytes("qwert")));
+    assertThat(second).containsExactly(
+        new ChangeFeed.Event(3, ChangeFeed.DELETE, asBytes("{\"id\":1}")));
+  }
+
+  @Test
+  void slowSubscribersHaveToResync() throws InterruptedException {
+    for (int i = 0; i < 6; i++) {
+      feed.publishClear();
+    }
+
+    assertThat(feed.poll(1, Duration.ZERO).getOrElseThrow())
+        .containsExactly(new ChangeFeed.Event(6, ChangeFeed.RESYNC, asBytes("{}")));
+    assertThat(feed.poll(7, Duration.ZERO).getOrElseThrow())
+        .containsExactly(new ChangeFeed.Event(6, ChangeFeed.RESYNC, asBytes("{}")));
+  }
+
+  @Test
+  void rejectsNegativeCursors() {
+    feed.publishClear();
+
+    assertThatThrownBy(() -> feed.poll(-1, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> feed.poll(-5, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void waitsForTheNextEvent() throws Exception {
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var waiting = executor.submit(() -> feed.poll(0, Duration.ofSeconds(10)).getOrElseThrow());
+      while (!feed.poll(0, Duration.ZERO).isEmpty()) {
+        Thread.onSpinWait();
+      }
+
+      feed.publishClear();
+
+      assertThat(waiting.get()).containsExactly(new ChangeFeed.Event(1, ChangeFeed.CLEAR, asBytes("{}")));
+    }
+  }
+
+  @Test
+  void encodesServerSentEvents() {
+    var events = List.of(new ChangeFeed.Event(1, ChangeFeed.CLEAR, asBytes("{}")));
+
+    assertThat(ChangeFeed.encode(0, events, 100))
+        .isEqualTo(asBytes("retry: 100\nid: 0\n\nid: 1\nevent: clear\ndata: {}\n\n"));
+  }
+
+  @Test
+  void encodesTheCursorWithoutEvents() {
+    assertThat(ChangeFeed.encode(7, List.of(), 100)).isEqualTo(asBytes("retry: 100\nid: 7\n\n"));
+  }
+}
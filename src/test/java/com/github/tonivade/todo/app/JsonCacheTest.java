@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+class JsonCacheTest {
+
+  private final AtomicInteger encoded = new AtomicInteger();
+  private final JsonCache cache = new JsonCache(todo -> {
+    encoded.incrementAndGet();
+    return asBytes(todo.getTitle());
+  }, 2);
+
+  @Test
+  void todosAreEncodedOnceUntilWritten() {
+    var todo = Todo.create(1, "asdfg", null, false);
+
+    cache.todo(todo, cache.versions().version());
+    assertThat(cache.todo(1)).isEqualTo(Option.some(asBytes("asdfg")));
+
+    cache.written(1);
+
+    assertThat(cache.todo(1)).isEqualTo(Option.none());
+    assertThat(encoded.get()).isEqualTo(1);
+  }
+
+  @Test
+  void listsAreMadeOfTheEncodedTodos() {
+    var version = cache.versions().version();
+    var list = cache.list(ImmutableList.of(Todo.create(1, "a", null, false), Todo.create(2, "b", null, false)), version);
+
+    assertThat(list).isEqualTo(asBytes("[a,b]"));
+    assertThat(cache.list()).isEqualTo(Option.some(list));
+
+    cache.written(2);
+    var updated = cache.list(ImmutableList.of(Todo.create(1, "a", null, false), Todo.create(2, "c", null, false)), cache.versions().version());
+
+    assertThat(updated).isEqualTo(asBytes("[a,c]"));
+    assertThat(encoded.get()).isEqualTo(3);
+  }
+
+  @Test
+  void keepsAtMostTheMaximumSize() {
+    var version = cache.versions().version();
+    var list = cache.list(ImmutableList.of(
+        Todo.create(1, "a", null, false), Todo.create(2, "b", null, false), Todo.create(3, "c", null, false)), version);
+
+    assertThat(list).isEqualTo(asBytes("[a,b,c]"));
+    assertThat(cache.todo(1)).isEqualTo(Option.some(asBytes("a")));
+    assertThat(cache.todo(3)).isEqualTo(Option.none());
+
+    cache.written(1);
+    cache.todo(Todo.create(3, "c", null, false), cache.versions().version());
+
+    assertThat(cache.todo(3)).isEqualTo(Option.some(asBytes("c")));
+  }
+
+  @Test
+  void readsOlderThanAWriteAreNotStored() {
+    var version = cache.versions().version();
+    cache.written(1);
+
+    cache.todo(Todo.create(1, "asdfg", null, false), version);
+    cache.list(ImmutableList.of(Todo.create(1, "asdfg", null, false)), version);
+
+    assertThat(cache.todo(1)).isEqualTo(Option.none());
+    assertThat(cache.list()).isEqualTo(Option.none());
+  }
+
+  @Test
+  void deletedTodosHaveNoStampNorOldReadsStored() {
+    cache.written(1);
+    var version = cache.versions().version();
+
+    cache.deleted(1);
+    cache.todo(Todo.create(1, "asdfg", null, false), version);
+
+    assertThat(cache.versions().stamp(1)).isZero();
+    assertThat(cache.todo(1)).isEqualTo(Option.none());
+  }
+
+  @Test
+  void writingAllInvalidatesEverything() {
+    cache.todo(Todo.create(1, "asdfg", null, false), cache.versions().version());
+    cache.written(2);
+
+    cache.writtenAll();
+
+    assertThat(cache.todo(1)).isEqualTo(Option.none());
+    assertThat(cache.versions().stamp(1)).isEqualTo(cache.versions().version());
+    assertThat(cache.versions().stamp(2)).isEqualTo(cache.versions().version());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.effect.Task;
+
+class SingleFlightTest {
+
+  private final SingleFlight<Integer, Integer> flights = new SingleFlight<>();
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Test
+  void concurrentCallsShareOneExecution() throws Exception {
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var first = executor.submit(() -> flights.run(1, slowTask()).unsafeRunSync());
+      started.await();
+
+      var others = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < 10; i++) {
+        others.add(executor.submit(() -> flights.run(1, slowTask()).unsafeRunSync()));
+      }
+      while (flights.stats().shared() < 10) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      assertThat(first.get()).isEqualTo(1);
+      for (var other : others) {
+        assertThat(other.get()).isEqualTo(1);
+      }
+    }
+    assertThat(executions.get()).isEqualTo(1);
+    assertThat(flights.stats()).isEqualTo(new SingleFlight.Stats(11, 10));
+  }
+
+  @Test
+  void callsAfterInvalidateRunAgain() throws Exception {
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var first = executor.submit(() -> flights.run(1, slowTask()).unsafeRunSync());
+      started.await();
+
+      flights.invalidate();
+      var second = flights.run(1, Task.task(executions::incrementAndGet)).unsafeRunSync();
+      release.countDown();
+
+      assertThat(first.get()).isEqualTo(1);
+      assertThat(second).isEqualTo(2);
+    }
+    assertThat(flights.stats().shared()).isZero();
+  }
+
+  private Task<Integer> slowTask() {
+    return Task.task(() -> {
+      var result = executions.incrementAndGet();
+      started.countDown();
+      release.await();
+      return result;
+    });
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoJsonTest {
+
+  @Test
+  void parsesAllFields() {
+    var dto = TodoJson.parse(asBytes("""
+        {"id": 1, "title": "qwe\\"rt\\u00e1", "order": 3, "completed": true, "url": "https://tonivade.es/todo/1"}
+        """));
+
+    assertThat(dto.getOrElseThrow())
+        .isEqualTo(new TodoDTO(1, "qwe\"rtá", 3, true, "https://tonivade.es/todo/1"));
+  }
+
+  @Test
+  void parsesDraft() {
+    var dto = TodoJson.parse(asBytes("""
+        {"title": "asdfg", "order": null}
+        """));
+
+    assertThat(dto.getOrElseThrow()).isEqualTo(new TodoDTO(null, "asdfg", null, null, null));
+  }
+
+  @Test
+  void skipsUnknownFields() {
+    var dto = TodoJson.parse(asBytes("""
+        {"priority": -1.5e3, "title": "asdfg", "tag": "x", "done": false, "other": null}
+        """));
+
+    assertThat(dto.getOrElseThrow()).isEqualTo(new TodoDTO(null, "asdfg", null, null, null));
+  }
+
+  @Test
+  void skipsNestedValuesOfUnknownFields() {
+    var dto = TodoJson.parse(asBytes("""
+        {"tags": ["a", {"b": [1, "]}"]}], "meta": {"x": {}, "y": []}, "title": "asdfg"}
+        """));
+
+    assertThat(dto.getOrElseThrow()).isEqualTo(new TodoDTO(null, "asdfg", null, null, null));
+  }
+
+  @Test
+  void rejectsInvalidNestedValues() {
+    assertThat(TodoJson.parse(asBytes("{\"tags\": [1, 2, \"title\": \"x\"}")).isFailure()).isTrue();
+    assertThat(TodoJson.parse(asBytes("{\"tags\": " + "[".repeat(100) + "]".repeat(100) + "}")).isFailure()).isTrue();
+  }
+
+  @Test
+  void rejectsInvalidJson() {
+    assertThat(TodoJson.parse(asBytes("{\"title\": ")).isFailure()).isTrue();
+    assertThat(TodoJson.parse(asBytes("[]")).isFailure()).isTrue();
+  }
+
+  @Test
+  void encodesWhatItParses() {
+    var todo = Todo.create(7, "a \"quoted\" tïtle\n", null, true);
+
+    var dto = TodoJson.parse(TodoJson.encode(todo));
+
+    assertThat(dto.getOrElseThrow()).isEqualTo(TodoDTO.fromDomain(todo));
+  }
+}
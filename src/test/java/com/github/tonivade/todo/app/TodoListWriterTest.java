@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purejson.TypeToken;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.zeromock.api.Bytes;
+import com.github.tonivade.zeromock.api.Deserializers;
+
+class TodoListWriterTest {
+
+  private final Type listOfTodos = new TypeToken<ImmutableList<TodoDTO>>() {}.getType();
+
+  private final List<Todo> todos = List.of(
+      Todo.create(1, "asdfg", null, false),
+      Todo.create(2, "with \"quotes\" and \\ backslashes / slashes", 3, true),
+      Todo.create(3, "tab\t, new line\n, return\r and \u0001 control", 1, false),
+      Todo.create(4, "ñandú, 日本語 and 😀", null, true),
+      Todo.create(Integer.MAX_VALUE, "max", Integer.MAX_VALUE, false));
+
+  @Test
+  void directIsEquivalentToTheSerializer() {
+    var serialized = new TodoListWriter();
+    var direct = new TodoListWriter();
+    for (var todo : todos) {
+      serialized.append(todo);
+      direct.accept(todo.getId(), todo.getTitle(), todo.getOrder(), todo.isCompleted());
+    }
+
+    assertThat(parse(direct.close())).isEqualTo(parse(serialized.close()))
+        .isEqualTo(ImmutableList.from(todos.stream().map(TodoDTO::fromDomain).toList()));
+  }
+
+  @Test
+  void emptyList() {
+    assertThat(new TodoListWriter().close()).isEqualTo(asBytes("[]"));
+  }
+
+  @Test
+  void writesNumbers() {
+    var writer = new JsonWriter(1);
+
+    writer.value(0).raw(',').value(-1).raw(',').value(Integer.MIN_VALUE).raw(',').value(Integer.MAX_VALUE);
+
+    assertThat(writer.toBytes()).isEqualTo(asBytes("0,-1,-2147483648,2147483647"));
+  }
+
+  private ImmutableList<TodoDTO> parse(Bytes json) {
+    return Task.pure(json)
+        .flatMap(Deserializers.<ImmutableList<TodoDTO>>jsonToObject(listOfTodos).andThen(Task::fromTry))
+        .flatMap(Task::fromOption)
+        .unsafeRunSync();
+  }
+}
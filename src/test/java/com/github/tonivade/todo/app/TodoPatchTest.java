@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoPatchTest {
+
+  @Test
+  void parsesAllFields() {
+    var patch = TodoPatch.parse(asBytes("""
+        {"title": "qwe\\"rt", "order": 3, "completed": true}
+        """));
+
+    assertThat(patch.getOrElseThrow())
+        .isEqualTo(new TodoPatch(Option.some("qwe\"rt"), Option.some(3), Option.some(true)));
+  }
+
+  @Test
+  void ignoresNullValues() {
+    var patch = TodoPatch.parse(asBytes("""
+        {"title": null, "completed": false}
+        """));
+
+    assertThat(patch.getOrElseThrow())
+        .isEqualTo(new TodoPatch(Option.none(), Option.none(), Option.some(false)));
+  }
+
+  @Test
+  void rejectsUnknownFields() {
+    var patch = TodoPatch.parse(asBytes("""
+        {"title": "asdfg", "priority": 1}
+        """));
+
+    assertThat(patch.isFailure()).isTrue();
+  }
+
+  @Test
+  void rejectsEmptyPatch() {
+    assertThat(TodoPatch.parse(asBytes("{}")).isFailure()).isTrue();
+  }
+
+  @Test
+  void appliesOnlyPresentFields() {
+    var todo = Todo.create(1, "asdfg", 1, false);
+    var patch = new TodoPatch(Option.none(), Option.some(5), Option.none());
+
+    assertThat(patch.toOperator().apply(todo)).isEqualTo(Todo.create(1, "asdfg", 5, false));
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.app;
+
+import static com.github.tonivade.zeromock.api.Bytes.asBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.zeromock.api.Bytes;
+
+class TodoWritesTest {
+
+  private final JsonCache json = new JsonCache(todo -> asBytes(todo.getTitle()), 10);
+  private final ChangeFeed changes = new ChangeFeed(todo -> asBytes(todo.getTitle()), 4, 4, 1);
+  private final TodoWrites writes = new TodoWrites(new SingleFlight<Integer, Bytes>(), json, changes, 4);
+
+  @Test
+  void publishesWhatWasApplied() throws InterruptedException {
+    var etag = json.versions().etag();
+
+    writes.written(Task.pure(true), removed -> removed ? List.of(new TodoOperation.Delete(new Id(1))) : List.of())
+        .unsafeRunSync();
+
+    assertThat(json.versions().etag()).isNotEqualTo(etag);
+    assertThat(changes.poll(0, Duration.ZERO).getOrElseThrow())
+        .containsExactly(new ChangeFeed.Event(1, ChangeFeed.DELETE, asBytes("{\"id\":1}")));
+  }
+
+  @Test
+  void publishesNothingIfNothingWasApplied() throws InterruptedException {
+    var etag = json.versions().etag(1);
+
+    writes.written(Task.pure(false), removed -> removed ? List.of(new TodoOperation.Delete(new Id(1))) : List.of())
+        .unsafeRunSync();
+
+    assertThat(json.versions().etag(1)).isEqualTo(etag);
+    assertThat(changes.poll(0, Duration.ZERO).getOrElseThrow()).isEmpty();
+  }
+
+  @Test
+  void resyncsIfTheWriteFails() throws InterruptedException {
+    var etag = json.versions().etag();
+
+    var result = writes.written(Task.<Boolean>raiseError(new IllegalStateException()), _ -> List.of())
+        .safeRunSync();
+
+    assertThat(result.isFailure()).isTrue();
+    assertThat(json.versions().etag()).isNotEqualTo(etag);
+    assertThat(changes.poll(0, Duration.ZERO).getOrElseThrow())
+        .containsExactly(new ChangeFeed.Event(1, ChangeFeed.RESYNC, asBytes("{}")));
+  }
+}
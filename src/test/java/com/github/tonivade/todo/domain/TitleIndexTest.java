@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TitleIndexTest {
+
+  @Test
+  void findsWordsAndPrefixes() {
+    var index = new TitleIndex();
+    index.put(1, "Buy milk");
+    index.put(2, "Buy milkshake");
+    index.put(3, "Walk the dog");
+
+    assertThat(index.search("milk", 10)).containsExactly(1, 2);
+    assertThat(index.search("buy mil", 10)).containsExactly(1, 2);
+    assertThat(index.search("milks", 10)).containsExactly(2);
+    assertThat(index.search("dog buy", 10)).isEmpty();
+  }
+
+  @Test
+  void ranksWholeWordsFirst() {
+    var index = new TitleIndex();
+    index.put(1, "milkshake");
+    index.put(2, "milk");
+
+    assertThat(index.search("milk", 10)).containsExactly(2, 1);
+  }
+
+  @Test
+  void followsUpdatesAndDeletes() {
+    var index = new TitleIndex();
+    index.put(1, "Buy milk");
+    index.replace(1, "Buy milk", "Buy bread");
+    index.put(2, "Bake bread bread");
+    index.remove(2, "Bake bread bread");
+
+    assertThat(index.search("milk", 10)).isEmpty();
+    assertThat(index.search("bread", 10)).containsExactly(1);
+  }
+
+  @Test
+  void ranksTheTodosGiven() {
+    var shake = Todo.create(1, "milkshake", null, false);
+    var milk = Todo.create(2, "milk", null, false);
+
+    assertThat(TitleIndex.search(List.of(milk, shake), "milk", 10)).containsExactly(milk, shake);
+  }
+}
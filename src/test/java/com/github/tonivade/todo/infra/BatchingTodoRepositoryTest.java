@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.todo.domain.Todo;
+
+class BatchingTodoRepositoryTest {
+
+  @Test
+  void everyCallerGetsItsOwnId() throws Exception {
+    var delegate = new TodoInMemoryRepository();
+    try (var repository = new BatchingTodoRepository(delegate, 16, Duration.ofMillis(5));
+         var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<Todo>>();
+      for (int i = 0; i < 100; i++) {
+        var title = "todo " + i;
+        futures.add(executor.submit(() -> repository.create(Todo.draft(title)).unsafeRunSync()));
+      }
+
+      var ids = new ArrayList<Integer>();
+      for (var future : futures) {
+        ids.add(future.get().getId());
+      }
+
+      assertThat(ids).doesNotHaveDuplicates().hasSize(100);
+      assertThat(delegate.findAll().unsafeRunSync().size()).isEqualTo(100);
+    }
+  }
+}
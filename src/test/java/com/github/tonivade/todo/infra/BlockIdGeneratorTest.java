@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class BlockIdGeneratorTest {
+
+  @Test
+  void reservesBlocksOfIds() throws SQLException {
+    var dao = mock(TodoDAO.class);
+    var dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+    JdbcAction<Long> first = _ -> 1L;
+    JdbcAction<Long> second = _ -> 1L + TodoDAO.ID_BLOCK;
+    when(dao.nextIdBlock()).thenReturn(first, second);
+    var generator = new BlockIdGenerator(dao, dataSource);
+
+    var ids = new ArrayList<Integer>();
+    for (int i = 0; i <= TodoDAO.ID_BLOCK; i++) {
+      ids.add(generator.nextId());
+    }
+
+    assertThat(ids.getFirst()).isEqualTo(1);
+    assertThat(ids.getLast()).isEqualTo(TodoDAO.ID_BLOCK + 1);
+    assertThat(ids).doesNotHaveDuplicates();
+    verify(dao, times(2)).nextIdBlock();
+  }
+}
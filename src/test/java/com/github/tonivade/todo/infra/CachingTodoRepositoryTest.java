@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+
+class CachingTodoRepositoryTest {
+
+  @Test
+  void cachesFoundTodos() {
+    var repository = new CachingTodoRepository(new TodoInMemoryRepository(), 10);
+    var created = repository.create(Todo.draft("asdfg")).unsafeRunSync();
+    var id = new Id(created.getId());
+
+    repository.find(id).unsafeRunSync();
+    var found = repository.find(id).unsafeRunSync();
+
+    assertThat(found.getOrElseThrow()).isEqualTo(created);
+    assertThat(repository.stats()).isEqualTo(new CachingTodoRepository.Stats(1, 1, 0, 1));
+  }
+
+  @Test
+  void invalidatesOnWrite() {
+    var repository = new CachingTodoRepository(new TodoInMemoryRepository(), 10);
+    var created = repository.create(Todo.draft("asdfg")).unsafeRunSync();
+    var id = new Id(created.getId());
+
+    repository.find(id).unsafeRunSync();
+    repository.modify(id, todo -> todo.withTitle("qwert")).unsafeRunSync();
+    var found = repository.find(id).unsafeRunSync();
+
+    assertThat(found.getOrElseThrow().getTitle()).isEqualTo("qwert");
+  }
+
+  @Test
+  void evictsLessFrequentTodos() {
+    var repository = new CachingTodoRepository(new TodoInMemoryRepository(), 1);
+    var first = new Id(repository.create(Todo.draft("asdfg")).unsafeRunSync().getId());
+    var second = new Id(repository.create(Todo.draft("qwert")).unsafeRunSync().getId());
+
+    repository.find(first).unsafeRunSync();
+    repository.find(second).unsafeRunSync();
+    repository.find(second).unsafeRunSync();
+    repository.find(second).unsafeRunSync();
+
+    assertThat(repository.stats().evictions()).isEqualTo(1);
+    assertThat(repository.stats().size()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+class ReplicaRouterTest {
+
+  private final DataSource primary = mock(DataSource.class);
+  private final ThrottledDataSource first = new ThrottledDataSource(mock(DataSource.class), 2);
+  private final ThrottledDataSource second = new ThrottledDataSource(mock(DataSource.class), 2);
+
+  @Test
+  void readsFromReplicasRoundRobin() {
+    var router = new ReplicaRouter(primary, List.of(first, second), ReplicaRouter.Selection.ROUND_ROBIN, Duration.ofSeconds(1));
+
+    assertThat(router.read(1)).isSameAs(first);
+    assertThat(router.read(1)).isSameAs(second);
+    assertThat(router.readAll()).isSameAs(first);
+    assertThat(router.primary()).isSameAs(primary);
+  }
+
+  @Test
+  void readsFromTheLeastBusyReplica() throws SQLException {
+    var delegate = mock(DataSource.class);
+    when(delegate.getConnection()).thenReturn(mock(Connection.class));
+    var first = new ThrottledDataSource(delegate, 2);
+    var router = new ReplicaRouter(primary, List.of(first, second), ReplicaRouter.Selection.LEAST_BUSY, Duration.ofSeconds(1));
+
+    try (Connection _ = first.getConnection()) {
+      assertThat(router.read(1)).isSameAs(second);
+    }
+  }
+
+  @Test
+  void readsYourWritesFromThePrimary() {
+    var router = new ReplicaRouter(primary, List.of(first), ReplicaRouter.Selection.ROUND_ROBIN, Duration.ofMinutes(1));
+
+    router.written(1);
+
+    assertThat(router.read(1)).isSameAs(primary);
+    assertThat(router.read(2)).isSameAs(first);
+    assertThat(router.readAll()).isSameAs(primary);
+  }
+
+  @Test
+  void goesBackToTheReplicasAfterTheWindow() {
+    var router = new ReplicaRouter(primary, List.of(first), ReplicaRouter.Selection.ROUND_ROBIN, Duration.ZERO);
+
+    router.written(1);
+
+    assertThat(router.read(1)).isSameAs(first);
+    assertThat(router.readAll()).isSameAs(first);
+  }
+}
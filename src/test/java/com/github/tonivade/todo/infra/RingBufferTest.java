@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+  @Test
+  void rejectsWhenFull() {
+    var buffer = new RingBuffer<Integer>(4);
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(buffer.offer(i)).isTrue();
+    }
+
+    assertThat(buffer.offer(4)).isFalse();
+  }
+
+  @Test
+  void drainsInOrder() {
+    var buffer = new RingBuffer<Integer>(3);
+    List<Integer> result = new ArrayList<>();
+
+    buffer.offer(1);
+    buffer.offer(2);
+    buffer.offer(3);
+
+    assertThat(buffer.capacity()).isEqualTo(4);
+    assertThat(buffer.drain(result::add, 2)).isEqualTo(2);
+    assertThat(buffer.drain(result::add, 10)).isEqualTo(1);
+    assertThat(result).containsExactly(1, 2, 3);
+    assertThat(buffer.isEmpty()).isTrue();
+  }
+
+  @Test
+  void concurrentProducers() throws InterruptedException {
+    var buffer = new RingBuffer<Integer>(1024);
+    var latch = new CountDownLatch(4);
+
+    try (var executor = Executors.newFixedThreadPool(4)) {
+      for (int t = 0; t < 4; t++) {
+        executor.execute(() -> {
+          for (int i = 0; i < 100; i++) {
+            buffer.offer(i);
+          }
+          latch.countDown();
+        });
+      }
+      latch.await();
+    }
+
+    List<Integer> result = new ArrayList<>();
+    buffer.drain(result::add, 1024);
+    assertThat(result).hasSize(400);
+  }
+}
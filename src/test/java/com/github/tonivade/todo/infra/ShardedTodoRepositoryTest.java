@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.data.Sequence;
+import com.github.tonivade.purefun.effect.Task;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+import com.github.tonivade.todo.domain.TodoRepository;
+
+class ShardedTodoRepositoryTest {
+
+  private final TodoRepository<Task<?>> even = shard();
+  private final TodoRepository<Task<?>> odd = shard();
+
+  @Test
+  void routesByIdToTheShard() {
+    var todo = Todo.create(3, "asdfg", null, false);
+    when(odd.find(new Id(3))).thenReturn(Task.pure(Option.some(todo)));
+
+    try (var repository = new ShardedTodoRepository(List.of(even, odd))) {
+      assertThat(repository.find(new Id(3)).unsafeRunSync()).isEqualTo(Option.some(todo));
+    }
+    verify(even, never()).find(any());
+  }
+
+  @Test
+  void mergesPagesInIdOrder() {
+    when(even.findPage(Option.none(), 3)).thenReturn(Task.pure(todos(2, 4, 6)));
+    when(odd.findPage(Option.none(), 3)).thenReturn(Task.pure(todos(1, 3, 5)));
+
+    try (var repository = new ShardedTodoRepository(List.of(even, odd))) {
+      var page = repository.findPage(Option.none(), 3).unsafeRunSync();
+
+      assertThat(page).isEqualTo(todos(1, 2, 3));
+    }
+  }
+
+  @Test
+  void keepsTheOrderOfBulkOperations() {
+    var delete = new TodoOperation.Delete(new Id(1));
+    var update = new TodoOperation.Update(Todo.create(2, "asdfg", null, true));
+    when(odd.bulk(ImmutableList.of(delete))).thenReturn(Task.pure(ImmutableList.of(Option.some(delete))));
+    when(even.bulk(ImmutableList.of(update))).thenReturn(Task.pure(ImmutableList.of(Option.none())));
+
+    try (var repository = new ShardedTodoRepository(List.of(even, odd))) {
+      var results = repository.bulk(ImmutableList.of(delete, update)).unsafeRunSync();
+
+      assertThat(results).isEqualTo(ImmutableList.of(Option.some(delete), Option.none()));
+    }
+  }
+
+  @Test
+  void shardedIdsEncodeTheShard() {
+    var ids = IdGenerator.sharded(IdGenerator.sequential(new AtomicInteger()), 1, 3);
+
+    assertThat(List.of(ids.nextId(), ids.nextId(), ids.nextId())).allMatch(id -> id % 3 == 1);
+  }
+
+  private static Sequence<Todo> todos(int... ids) {
+    var todos = new ArrayList<Todo>();
+    for (var id : ids) {
+      todos.add(Todo.create(id, "todo " + id, null, false));
+    }
+    return ImmutableList.from(todos);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static TodoRepository<Task<?>> shard() {
+    return mock(TodoRepository.class);
+  }
+}
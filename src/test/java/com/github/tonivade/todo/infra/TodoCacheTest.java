@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoCacheTest {
+
+  @Test
+  void doesNotKeepTodosReadBeforeAnInvalidate() throws Exception {
+    for (int i = 0; i < 2_000; i++) {
+      var cache = new TodoCache(10);
+      var stored = new AtomicReference<>(Todo.create(1, "old", null, false));
+      var barrier = new CyclicBarrier(2);
+
+      var reader = Thread.ofPlatform().start(() -> {
+        await(barrier);
+        long epoch = cache.epoch();
+        cache.put(1, stored.get(), epoch);
+      });
+      var writer = Thread.ofPlatform().start(() -> {
+        await(barrier);
+        stored.set(Todo.create(1, "new", null, false));
+        cache.invalidate(1);
+      });
+      reader.join();
+      writer.join();
+
+      var cached = cache.get(1);
+      assertThat(cached).isIn(Option.none(), Option.some(stored.get()));
+    }
+  }
+
+  private static void await(CyclicBarrier barrier) {
+    try {
+      barrier.await();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
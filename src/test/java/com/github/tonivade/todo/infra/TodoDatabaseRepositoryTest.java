@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+class TodoDatabaseRepositoryTest {
+
+  private final HikariDataSource dataSource = createDataSource();
+
+  @AfterEach
+  void tearDown() {
+    dataSource.close();
+  }
+
+  @Test
+  void rowsAreTheSameAsTheTodos() {
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    var repository = new TodoDatabaseRepository(dao, dataSource);
+    repository.create(Todo.draft("asdfg")).unsafeRunSync();
+    repository.create(Todo.draft("qwert", 2)).unsafeRunSync();
+    var completed = repository.create(Todo.draft("zxcvb", 1)).unsafeRunSync();
+    repository.update(completed.withCompleted(true)).unsafeRunSync();
+
+    var rows = new ArrayList<Todo>();
+    repository.forEachRow((id, title, order, done) -> rows.add(Todo.create(id, title, order, done))).unsafeRunSync();
+
+    assertThat(rows).containsExactlyElementsOf(repository.findPage(Option.none(), 10).unsafeRunSync());
+  }
+
+  @Test
+  void searchFollowsTheWrites() {
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    var repository = new TodoDatabaseRepository(dao, dataSource);
+    repository.create(Todo.draft("buy milk")).unsafeRunSync();
+    var deleted = repository.create(Todo.draft("buy bread")).unsafeRunSync();
+
+    assertThat(repository.search("buy", 10).unsafeRunSync().size()).isEqualTo(2);
+
+    repository.delete(new Id(deleted.getId())).unsafeRunSync();
+
+    assertThat(repository.search("buy", 10).unsafeRunSync().size()).isEqualTo(1);
+  }
+
+  @Test
+  void searchFollowsConcurrentWrites() {
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    var repository = new TodoDatabaseRepository(dao, dataSource);
+
+    for (int i = 0; i < 100; i++) {
+      var todo = repository.create(Todo.draft("todo " + i)).unsafeRunSync();
+      var id = new Id(todo.getId());
+      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        executor.submit(() -> repository.update(todo.withTitle("todo updated")).unsafeRunSync());
+        executor.submit(() -> repository.delete(id).unsafeRunSync());
+      }
+
+      assertThat(repository.find(id).unsafeRunSync().isEmpty()).isTrue();
+      assertThat(repository.search("todo", 10).unsafeRunSync().isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void searchRanksTheRowsFound() {
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    var repository = new TodoDatabaseRepository(dao, dataSource);
+    var prefix = repository.create(Todo.draft("Buy milkshake")).unsafeRunSync();
+    var exact = repository.create(Todo.draft("Buy Milk")).unsafeRunSync();
+    repository.create(Todo.draft("Bake bread")).unsafeRunSync();
+
+    assertThat(repository.search("milk buy", 10).unsafeRunSync()).containsExactly(exact, prefix);
+  }
+
+  @Test
+  void migratesTheSchemaOfAnOlderVersion() {
+    JdbcAction.update("create table todo (id identity not null, title varchar(100) not null, "
+        + "position int, completed bit not null default 0, primary key (id))")
+        .flatMap(_ -> JdbcAction.update("insert into todo (id, title) values (100, 'old')"))
+        .safeRunIO(dataSource).unsafeRunSync();
+    var dao = new TodoDAO();
+    dao.create().safeRunIO(dataSource).unsafeRunSync();
+    var repository = new TodoDatabaseRepository(dao, dataSource);
+
+    var created = repository.create(Todo.draft("new")).unsafeRunSync();
+    var modified = repository.modify(new Id(100), todo -> todo.withCompleted(true)).unsafeRunSync();
+
+    assertThat(created.getId()).isGreaterThan(100);
+    assertThat(modified.map(Todo::isCompleted)).isEqualTo(Option.some(true));
+  }
+
+  private static HikariDataSource createDataSource() {
+    var configuration = new HikariConfig();
+    configuration.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    configuration.setUsername("sa");
+    configuration.setPassword("");
+    return new HikariDataSource(configuration);
+  }
+}
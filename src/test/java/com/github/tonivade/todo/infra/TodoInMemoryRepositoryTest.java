@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.data.ImmutableList;
+import com.github.tonivade.purefun.effect.TaskOf;
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoOperation;
+
+class TodoInMemoryRepositoryTest {
+
+  private final TodoInMemoryRepository repository = new TodoInMemoryRepository();
+
+  @Test
+  void bulkDeletesOnlyTheTodosFound() {
+    var todo = repository.create(Todo.draft("buy milk")).unsafeRunSync();
+    var delete = new TodoOperation.Delete(new Id(todo.getId()));
+    var missing = new TodoOperation.Delete(new Id(todo.getId() + 1));
+
+    var results = repository.bulk(ImmutableList.of(delete, delete, missing)).fix(TaskOf::toTask).unsafeRunSync();
+
+    assertThat(results).containsExactly(Option.some(delete), Option.none(), Option.none());
+  }
+}
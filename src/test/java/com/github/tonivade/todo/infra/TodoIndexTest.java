@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+import com.github.tonivade.todo.domain.TodoQuery;
+
+class TodoIndexTest {
+
+  @Test
+  void todosWithoutOrderAtTheEnd() {
+    var index = new TodoIndex();
+    index.add(Todo.create(1, "asdfg", null, false));
+    index.add(Todo.create(2, "qwert", 5, false));
+    index.add(Todo.create(3, "zxcvb", Integer.MAX_VALUE, false));
+    index.add(Todo.create(4, "poiuy", 1, false));
+
+    assertThat(index.ids(new TodoQuery(Option.none(), TodoQuery.Sort.ORDER)).toArray())
+        .containsExactly(4, 2, 3, 1);
+  }
+
+  @Test
+  void mergesCompletedWithActive() {
+    var index = new TodoIndex();
+    index.add(Todo.create(1, "asdfg", null, true));
+    index.add(Todo.create(2, "qwert", 2, false));
+    index.add(Todo.create(3, "zxcvb", 1, true));
+    index.add(Todo.create(4, "poiuy", null, false));
+    index.add(Todo.create(5, "lkjhg", 2, true));
+
+    assertThat(index.ids(new TodoQuery(Option.none(), TodoQuery.Sort.ORDER)).toArray())
+        .containsExactly(3, 2, 5, 1, 4);
+    assertThat(index.ids(new TodoQuery(Option.none(), TodoQuery.Sort.ID)).toArray())
+        .containsExactly(1, 2, 3, 4, 5);
+    assertThat(index.ids(new TodoQuery(Option.some(true), TodoQuery.Sort.ORDER)).toArray())
+        .containsExactly(3, 5, 1);
+  }
+
+  @Test
+  void removesByTheSameKey() {
+    var index = new TodoIndex();
+    var todo = Todo.create(1, "asdfg", Integer.MAX_VALUE, false);
+    index.add(todo);
+    index.add(Todo.create(2, "qwert", null, false));
+
+    index.remove(todo);
+
+    assertThat(index.ids(new TodoQuery(Option.none(), TodoQuery.Sort.ORDER)).toArray()).containsExactly(2);
+  }
+
+  @Test
+  void keysAreNeverNegative() {
+    assertThat(TodoIndex.key(Integer.MIN_VALUE, Integer.MAX_VALUE)).isNotNegative();
+    assertThat(TodoIndex.key(Integer.MAX_VALUE, Integer.MAX_VALUE)).isNotNegative();
+    assertThat(TodoIndex.key(null, Integer.MAX_VALUE)).isNotNegative();
+  }
+
+  @Test
+  void keysFollowTheOrder() {
+    assertThat(TodoIndex.key(Integer.MIN_VALUE, 9)).isLessThan(TodoIndex.key(-1, 1));
+    assertThat(TodoIndex.key(-1, 9)).isLessThan(TodoIndex.key(0, 1));
+    assertThat(TodoIndex.key(0, 9)).isLessThan(TodoIndex.key(1, 1));
+    assertThat(TodoIndex.key(1, 9)).isLessThan(TodoIndex.key(Integer.MAX_VALUE, 1));
+    assertThat(TodoIndex.key(Integer.MAX_VALUE, 9)).isLessThan(TodoIndex.key(null, 1));
+    assertThat(TodoIndex.key(3, 1)).isLessThan(TodoIndex.key(3, 2));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoJournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void replaysTheLog() {
+    var store = new TodoStore(1);
+    var counter = new AtomicInteger();
+    try (var journal = new TodoJournal(directory, store, counter)) {
+      put(journal, store, Todo.create(1, "asdfg", 1, false));
+      put(journal, store, Todo.create(2, "qwert", null, true));
+      journal.append(new TodoJournal.Entry.Delete(1), () -> store.remove(1));
+    }
+
+    var recovered = new TodoStore(1);
+    var recoveredCounter = new AtomicInteger();
+    try (var _ = new TodoJournal(directory, recovered, recoveredCounter)) {
+      assertThat(recovered.get(1)).isEqualTo(Option.none());
+      assertThat(recovered.get(2)).isEqualTo(Option.some(Todo.create(2, "qwert", null, true)));
+      assertThat(recoveredCounter.get()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void loadsTheSnapshotAndTheFollowingLog() throws IOException {
+    var store = new TodoStore(1);
+    try (var journal = new TodoJournal(directory, store, new AtomicInteger())) {
+      put(journal, store, Todo.create(1, "asdfg", 1, false));
+      journal.snapshot();
+      put(journal, store, Todo.create(2, "qwert", 2, false));
+      journal.append(new TodoJournal.Entry.Clear(), store::clear);
+      put(journal, store, Todo.create(3, "zxcvb", 3, true));
+    }
+
+    var recovered = new TodoStore(1);
+    try (var _ = new TodoJournal(directory, recovered, new AtomicInteger())) {
+      assertThat(recovered.size()).isEqualTo(1);
+      assertThat(recovered.get(3)).isEqualTo(Option.some(Todo.create(3, "zxcvb", 3, true)));
+    }
+    try (var files = Files.list(directory)) {
+      assertThat(files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).count()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void ignoresTruncatedRecords() throws IOException {
+    var store = new TodoStore(1);
+    try (var journal = new TodoJournal(directory, store, new AtomicInteger())) {
+      put(journal, store, Todo.create(1, "asdfg", 1, false));
+    }
+    var log = directory.resolve("journal-1.log");
+    Files.write(log, new byte[] { 0, 0, 0, 20, 1, 2 }, StandardOpenOption.APPEND);
+
+    var recovered = new TodoStore(1);
+    try (var _ = new TodoJournal(directory, recovered, new AtomicInteger())) {
+      assertThat(recovered.get(1)).isEqualTo(Option.some(Todo.create(1, "asdfg", 1, false)));
+    }
+  }
+
+  @Test
+  void appliesTheChangesOnceDurable() {
+    var store = new TodoStore(1);
+    try (var journal = new TodoJournal(directory, store, new AtomicInteger())) {
+      var applied = new AtomicInteger();
+      journal.append(new TodoJournal.Entry.Put(Todo.create(1, "asdfg", 1, false)), () -> {
+        assertThat(directory.resolve("journal-1.log")).isNotEmptyFile();
+        applied.incrementAndGet();
+      });
+
+      assertThat(applied.get()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void failsToAppendOnceClosed() {
+    var store = new TodoStore(1);
+    var journal = new TodoJournal(directory, store, new AtomicInteger());
+    journal.close();
+
+    assertThatThrownBy(() -> put(journal, store, Todo.create(1, "asdfg", 1, false)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(store.size()).isZero();
+  }
+
+  private static void put(TodoJournal journal, TodoStore store, Todo todo) {
+    journal.append(new TodoJournal.Entry.Put(todo), () -> store.put(todo));
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.tonivade.purefun.type.Option;
+import com.github.tonivade.todo.domain.Id;
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoMappedRepositoryTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void survivesRestarts() {
+    Todo created;
+    try (var repository = new TodoMappedRepository(directory)) {
+      created = repository.create(Todo.draft("asdfg", 3)).unsafeRunSync();
+      repository.update(created.withTitle("qwert").withCompleted(true)).unsafeRunSync();
+    }
+
+    try (var repository = new TodoMappedRepository(directory)) {
+      var found = repository.find(new Id(created.getId())).unsafeRunSync();
+
+      assertThat(found).isEqualTo(Option.some(Todo.create(created.getId(), "qwert", 3, true)));
+    }
+  }
+
+  @Test
+  void reusesDeletedSlots() {
+    try (var repository = new TodoMappedRepository(directory)) {
+      var first = repository.create(Todo.draft("asdfg")).unsafeRunSync();
+      repository.create(Todo.draft("qwert")).unsafeRunSync();
+
+      assertThat(repository.delete(new Id(first.getId())).unsafeRunSync()).isTrue();
+      assertThat(repository.delete(new Id(first.getId())).unsafeRunSync()).isFalse();
+      var third = repository.create(Todo.draft("zxcvb")).unsafeRunSync();
+
+      assertThat(third.getId()).isEqualTo(first.getId());
+      assertThat(repository.findAll().unsafeRunSync().size()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void reclaimsTheSpaceOfTheTitles() throws IOException {
+    try (var repository = new TodoMappedRepository(directory)) {
+      var kept = repository.create(Todo.draft("kept")).unsafeRunSync();
+      var todo = repository.create(Todo.draft("a")).unsafeRunSync();
+      for (int i = 0; i < 100_000; i++) {
+        var title = (i % 2 == 0 ? "b" : "c").repeat(20);
+        repository.update(todo.withTitle(title)).unsafeRunSync();
+        repository.update(todo.withTitle("a")).unsafeRunSync();
+      }
+
+      assertThat(repository.find(new Id(kept.getId())).unsafeRunSync()).isEqualTo(Option.some(kept));
+      assertThat(repository.find(new Id(todo.getId())).unsafeRunSync()).isEqualTo(Option.some(todo.withTitle("a")));
+    }
+    assertThat(Files.size(directory.resolve("todo.titles"))).isEqualTo(1 << 20);
+  }
+
+  @Test
+  void growsTheFiles() {
+    try (var repository = new TodoMappedRepository(directory)) {
+      for (int i = 0; i < 100_000; i++) {
+        repository.create(Todo.draft("todo number " + i)).unsafeRunSync();
+      }
+
+      var page = repository.findPage(Option.some(new Id(99_998)), 10).unsafeRunSync();
+
+      assertThat(page.size()).isEqualTo(2);
+      assertThat(page.stream().findFirst().orElseThrow().getTitle()).isEqualTo("todo number 99998");
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2026, Antonio Gabriel Muñoz Conejo <me at tonivade dot es>
+ * Distributed under the terms of the MIT License
+ */
+package com.github.tonivade.todo.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.tonivade.todo.domain.Todo;
+
+class TodoStoreTest {
+
+  @Test
+  void putAndGet() {
+    var store = new TodoStore(4);
+
+    store.put(Todo.create(1, "asdfg", null, false));
+    store.put(Todo.create(2, "qwért", 3, true));
+
+    assertThat(store.get(1).getOrElseThrow()).isEqualTo(Todo.create(1, "asdfg", null, false));
+    assertThat(store.get(2).getOrElseThrow()).isEqualTo(Todo.create(2, "qwért", 3, true));
+    assertThat(store.get(3).isEmpty()).isTrue();
+  }
+
+  @Test
+  void keepsAllTodosAfterResizeAndRemove() {
+    var store = new TodoStore(2);
+
+    for (int i = 1; i <= 10_000; i++) {
+      store.put(Todo.create(i, "todo " + i, i, i % 2 == 0));
+    }
+    for (int i = 1; i <= 10_000; i += 3) {
+      assertThat(store.remove(i)).isTrue();
+    }
+
+    assertThat(store.size()).isEqualTo(6666);
+    for (int i = 1; i <= 10_000; i++) {
+      assertThat(store.get(i).isPresent()).isEqualTo(i % 3 != 1);
+    }
+  }
+
+  @Test
+  void reportsTheMemoryPerTodo() {
+    var store = new TodoStore(2);
+
+    for (int i = 1; i <= 10_000; i++) {
+      store.put(Todo.create(i, "todo " + i, i, false));
+    }
+
+    // 17 bytes of the columns of each slot, plus the title, plus the free slots
+    assertThat(store.bytesPerTodo()).isBetween(26L, 64L);
+  }
+
+  @Test
+  void replaceOnlyExisting() {
+    var store = new TodoStore(1);
+
+    store.put(Todo.create(1, "asdfg", null, false));
+
+    assertThat(store.replace(Todo.create(1, "qwert", 2, true))).isTrue();
+    assertThat(store.replace(Todo.create(2, "qwert", 2, true))).isFalse();
+    assertThat(store.get(1).getOrElseThrow().getTitle()).isEqualTo("qwert");
+  }
+
+  @Test
+  void idsAfterInOrder() {
+    var store = new TodoStore(8);
+
+    for (int i = 1; i <= 100; i++) {
+      store.put(Todo.create(i, "todo " + i, null, false));
+    }
+
+    assertThat(store.idsAfter(40, 5)).containsExactly(41, 42, 43, 44, 45);
+    assertThat(store.idsAfter(98, 5)).containsExactly(99, 100);
+  }
+}